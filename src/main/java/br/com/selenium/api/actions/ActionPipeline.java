@@ -0,0 +1,202 @@
+package br.com.selenium.api.actions;
+
+import br.com.selenium.api.annotation.Logger;
+import br.com.selenium.api.utils.ConfigManager;
+import br.com.selenium.api.utils.LoggerManager;
+import br.com.selenium.api.waits.Conditions;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.Keys;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Queues element interactions and runs them with as few WebDriver commands as possible.
+ * All queued operations are sent in a single executeScript call that sets values and
+ * dispatches input, change and key events in the page. If an operation cannot be done
+ * from script (hidden or disabled element, unsupported field, Enter outside a form, script error) it and every
+ * following operation are replayed with native WebDriver events.
+ * Use -Dactions.pipeline.nativeEvents=true to always use native events.
+ *
+ * Example:
+ * seleniumActions.pipeline().clearAndType(searchBox, "term").pressEnter(searchBox).run();
+ */
+@Logger(level = "DEBUG")
+public class ActionPipeline {
+    private static final boolean NATIVE_ONLY = ConfigManager.getBoolean("actions.pipeline.nativeEvents", false);
+
+    // Returns [index of the first operation that must run natively (-1 if none), reason]
+    private static final String BATCH_SCRIPT =
+            "var ops = arguments[0], els = arguments[1], texts = arguments[2];"
+            + "function visible(el) { return !!(el.offsetWidth || el.offsetHeight || el.getClientRects().length); }"
+            + "function setValue(el, value) {"
+            + "  var proto = Object.getPrototypeOf(el), desc = proto && Object.getOwnPropertyDescriptor(proto, 'value');"
+            + "  if (desc && desc.set) { desc.set.call(el, value); } else { el.value = value; }"
+            + "  el.dispatchEvent(new Event('input', {bubbles: true}));"
+            + "  el.dispatchEvent(new Event('change', {bubbles: true}));"
+            + "}"
+            + "function key(el, type) {"
+            + "  return el.dispatchEvent(new KeyboardEvent(type, {key: 'Enter', code: 'Enter', keyCode: 13,"
+            + "    which: 13, bubbles: true, cancelable: true}));"
+            + "}"
+            + "for (var i = 0; i < ops.length; i++) {"
+            + "  var el = els[i], op = ops[i];"
+            + "  try {"
+            + "    if (!el || el.isConnected === false || el.disabled || !visible(el)) { return [i, 'element not interactable']; }"
+            + "    if ((op === 'clear' || op === 'type') && !('value' in el)) { return [i, 'not a form field']; }"
+            + "    if (op === 'clear') { el.focus(); setValue(el, ''); }"
+            + "    else if (op === 'type') { el.focus(); setValue(el, (el.value || '') + texts[i]); }"
+            + "    else if (op === 'click') { el.click(); }"
+            + "    else if (op === 'enter') {"
+            // Outside a form there is nothing to submit: the browser's own Enter handling is needed
+            + "      if (!el.form) { return [i, 'not in a form']; }"
+            + "      var proceed = key(el, 'keydown') && key(el, 'keypress'); key(el, 'keyup');"
+            + "      if (proceed) { if (el.form.requestSubmit) { el.form.requestSubmit(); } else { el.form.submit(); } }"
+            + "    }"
+            + "    else { return [i, 'unsupported operation ' + op]; }"
+            + "  } catch (e) { return [i, String(e)]; }"
+            + "}"
+            + "return [-1, ''];";
+
+    private enum Operation {
+        CLEAR("clear"), TYPE("type"), CLICK("click"), PRESS_ENTER("enter");
+
+        private final String scriptName;
+
+        Operation(String scriptName) {
+            this.scriptName = scriptName;
+        }
+    }
+
+    private static class Step {
+        private final Operation operation;
+        private final WebElement element;
+        private final String text;
+
+        Step(Operation operation, WebElement element, String text) {
+            this.operation = operation;
+            this.element = element;
+            this.text = text;
+        }
+
+        @Override
+        public String toString() {
+            return operation + (text != null ? " '" + text + "'" : "");
+        }
+    }
+
+    private final WebDriver driver;
+    private final SeleniumActions actions;
+    private final List<Step> steps = new ArrayList<>();
+
+    ActionPipeline(WebDriver driver, SeleniumActions actions) {
+        this.driver = driver;
+        this.actions = actions;
+    }
+
+    public ActionPipeline clear(WebElement element) {
+        steps.add(new Step(Operation.CLEAR, element, null));
+        return this;
+    }
+
+    /**
+     * Append text to the current value of a field.
+     */
+    public ActionPipeline type(WebElement element, String text) {
+        steps.add(new Step(Operation.TYPE, element, text));
+        return this;
+    }
+
+    public ActionPipeline clearAndType(WebElement element, String text) {
+        return clear(element).type(element, text);
+    }
+
+    public ActionPipeline click(WebElement element) {
+        steps.add(new Step(Operation.CLICK, element, null));
+        return this;
+    }
+
+    public ActionPipeline pressEnter(WebElement element) {
+        steps.add(new Step(Operation.PRESS_ENTER, element, null));
+        return this;
+    }
+
+    /**
+     * Run every queued operation and clear the queue.
+     */
+    public void run() {
+        if (steps.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        int firstNative = NATIVE_ONLY ? 0 : runAsScript();
+
+        for (int i = firstNative; i < steps.size(); i++) {
+            runNative(steps.get(i));
+        }
+
+        LoggerManager.debug(String.format("Pipeline ran %d operation(s) in %d ms: %d by script, %d with native events %s",
+                steps.size(), (System.nanoTime() - start) / 1_000_000, firstNative, steps.size() - firstNative, steps));
+        steps.clear();
+        actions.getPageCache().invalidate("action pipeline");
+    }
+
+    /**
+     * Run the queue in one executeScript call.
+     * @return Index of the first operation that still has to be run natively
+     */
+    @SuppressWarnings("unchecked")
+    private int runAsScript() {
+        if (!(driver instanceof JavascriptExecutor)) {
+            return 0;
+        }
+        List<String> operations = new ArrayList<>();
+        List<WebElement> elements = new ArrayList<>();
+        List<String> texts = new ArrayList<>();
+        for (Step step : steps) {
+            operations.add(step.operation.scriptName);
+            elements.add(step.element);
+            texts.add(step.text == null ? "" : step.text);
+        }
+
+        try {
+            List<Object> result = (List<Object>) ((JavascriptExecutor) driver)
+                    .executeScript(BATCH_SCRIPT, operations, elements, texts);
+            int failedAt = ((Number) result.get(0)).intValue();
+            if (failedAt < 0) {
+                return steps.size();
+            }
+            LoggerManager.debug("Falling back to native events at " + steps.get(failedAt) + ": " + result.get(1));
+            return failedAt;
+        } catch (WebDriverException | UnsupportedOperationException e) {
+            // Nothing ran, e.g. an element could not be located or JavaScript is disabled
+            LoggerManager.debug("Falling back to native events: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    private void runNative(Step step) {
+        switch (step.operation) {
+            case CLEAR:
+                actions.waitUntil(Conditions.visible(step.element));
+                step.element.clear();
+                break;
+            case TYPE:
+                actions.waitUntil(Conditions.visible(step.element));
+                step.element.sendKeys(step.text);
+                break;
+            case CLICK:
+                actions.waitUntil(Conditions.clickable(step.element));
+                step.element.click();
+                break;
+            case PRESS_ENTER:
+                step.element.sendKeys(Keys.ENTER);
+                break;
+            default:
+                throw new IllegalStateException("Unknown operation: " + step.operation);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package br.com.selenium.api.actions;
+
+import br.com.selenium.api.annotation.Logger;
+import br.com.selenium.api.utils.ConfigManager;
+import br.com.selenium.api.utils.LoggerManager;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Cache of page reads (title, URL, page source, text searches) for one WebDriver.
+ * Values are valid for the current page version only. The version is bumped by
+ * SeleniumActions whenever it changes the page (navigate, click, type, Enter).
+ * With -Dpage.cache.mutationTracking=true it is also bumped when an in-page MutationObserver
+ * reports added, removed or edited nodes (attribute changes are ignored) or a new document is
+ * loaded, which catches JavaScript and asynchronous navigation. Reading that counter costs a
+ * script round trip, so it is read on the first lookup of a page version and then at most every
+ * -Dpage.cache.mutationCheckMillis (default 500).
+ * Caches only hold a weak reference to their driver and are evicted when it quits.
+ * Disable the cache entirely with -Dpage.cache.enabled=false.
+ */
+@Logger(level = "DEBUG")
+public class PageStateCache {
+    private static final Map<WebDriver, PageStateCache> CACHES = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final boolean ENABLED = ConfigManager.getBoolean("page.cache.enabled", true);
+
+    // Installs the observer on first call (returns -1), then returns the number of mutation records seen
+    private static final String MUTATION_COUNTER_SCRIPT =
+            "var w = window;"
+            + "if (!w.__pageCacheObserver) {"
+            + "  w.__pageCacheMutations = 0;"
+            + "  w.__pageCacheObserver = new MutationObserver(function(records) { w.__pageCacheMutations += records.length; });"
+            + "  w.__pageCacheObserver.observe(document, {subtree: true, childList: true, characterData: true});"
+            + "  return -1;"
+            + "}"
+            + "return w.__pageCacheMutations;";
+
+    // Weak: CACHES is keyed by the driver, a strong reference here would keep both alive forever
+    private final WeakReference<WebDriver> driver;
+    private final boolean trackMutations = ConfigManager.getBoolean("page.cache.mutationTracking", false);
+    private final long mutationCheckNanos =
+            TimeUnit.MILLISECONDS.toNanos(ConfigManager.getLong("page.cache.mutationCheckMillis", 500));
+    private final Map<String, Object> values = new HashMap<>();
+    private long version;
+    private long observedMutations = -1;
+    // Version and time of the last counter read; a new version is always checked once
+    private long checkedVersion = -1;
+    private long checkedAt;
+    private long hits;
+    private long misses;
+    private long invalidations;
+
+    private PageStateCache(WebDriver driver) {
+        this.driver = new WeakReference<>(driver);
+    }
+
+    /**
+     * Gets the cache shared by every SeleniumActions working on the given driver.
+     * @param driver The WebDriver
+     * @return The cache for that driver
+     */
+    public static PageStateCache forDriver(WebDriver driver) {
+        synchronized (CACHES) {
+            return CACHES.computeIfAbsent(driver, PageStateCache::new);
+        }
+    }
+
+    /**
+     * Drop the cache of a driver, e.g. when it quits.
+     * @param driver The WebDriver
+     */
+    public static void evict(WebDriver driver) {
+        CACHES.remove(driver);
+    }
+
+    /**
+     * Get a cached value for the current page version, loading it on a miss.
+     * @param key The value key, e.g. "title"
+     * @param loader Reads the value from the driver
+     * @return The cached or freshly loaded value
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> T get(String key, Supplier<T> loader) {
+        T value = (T) getIfPresent(key);
+        if (value == null) {
+            value = loader.get();
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Get a cached value for the current page version without loading it.
+     * Counts as a hit or a miss.
+     * @param key The value key
+     * @return The cached value, or null on a miss
+     */
+    public synchronized Object getIfPresent(String key) {
+        if (!ENABLED) {
+            misses++;
+            return null;
+        }
+        validateAgainstDom();
+        Object value = values.get(key);
+        if (value != null) {
+            hits++;
+            LoggerManager.trace("Page cache hit (v" + version + "): " + key);
+        } else {
+            misses++;
+        }
+        return value;
+    }
+
+    public synchronized void put(String key, Object value) {
+        if (ENABLED && value != null) {
+            values.put(key, value);
+        }
+    }
+
+    /**
+     * Drop every cached value and start a new page version.
+     * @param reason Why the page is considered changed, for the logs
+     */
+    public synchronized void invalidate(String reason) {
+        version++;
+        invalidations++;
+        if (!values.isEmpty()) {
+            LoggerManager.trace("Page cache invalidated (v" + version + "): " + reason);
+            values.clear();
+        }
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Log hit/miss statistics for this driver.
+     */
+    public synchronized void logStats() {
+        long total = hits + misses;
+        LoggerManager.info(String.format("Page cache: %d hits, %d misses (%.0f%% hit rate), %d page versions",
+                hits, misses, total == 0 ? 0.0 : 100.0 * hits / total, invalidations + 1));
+    }
+
+    private void validateAgainstDom() {
+        WebDriver current = driver.get();
+        if (!trackMutations || !(current instanceof JavascriptExecutor)) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (checkedVersion == version && now - checkedAt < mutationCheckNanos) {
+            return;
+        }
+        try {
+            Object counter = ((JavascriptExecutor) current).executeScript(MUTATION_COUNTER_SCRIPT);
+            if (!(counter instanceof Number)) {
+                invalidate("mutation counter unavailable");
+                return;
+            }
+            long mutations = ((Number) counter).longValue();
+            if (mutations < 0) {
+                // Observer was just installed: this is a document we have not seen yet
+                invalidate("new document");
+                observedMutations = 0;
+            } else if (mutations != observedMutations) {
+                invalidate((mutations - observedMutations) + " DOM mutation(s)");
+                observedMutations = mutations;
+            }
+        } catch (WebDriverException | UnsupportedOperationException e) {
+            invalidate("mutation counter unavailable: " + e.getMessage());
+        }
+        checkedVersion = version;
+        checkedAt = now;
+    }
+}
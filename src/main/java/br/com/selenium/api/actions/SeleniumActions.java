@@ -1,11 +1,20 @@
 package br.com.selenium.api.actions;
 
 import br.com.selenium.api.annotation.Logger;
+import br.com.selenium.api.screenshots.ScreenshotPipeline;
 import br.com.selenium.api.utils.LoggerManager;
-import io.qameta.allure.Allure;
+import br.com.selenium.api.waits.Conditions;
+import br.com.selenium.api.waits.WaitEngine;
 import org.openqa.selenium.*;
+import org.openqa.selenium.remote.CapabilityType;
 
-import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
  * This class encapsulates common Selenium API actions.
@@ -14,10 +23,43 @@ import java.io.ByteArrayInputStream;
  */
 @Logger(level = "DEBUG")
 public class SeleniumActions {
+    private static final String PAGE_METRICS_SCRIPT =
+            "var t = performance.timing, m = performance.memory;"
+            + "return {domContentLoadedMs: t.domContentLoadedEventEnd - t.navigationStart,"
+            + " loadMs: t.loadEventEnd > 0 ? t.loadEventEnd - t.navigationStart : -1,"
+            + " resources: performance.getEntriesByType('resource').length,"
+            + " usedJsHeapBytes: m ? m.usedJSHeapSize : -1};";
+
+    // Returns [titleOffset, pageOffset] for each term, searching rendered text only
+    private static final String FIND_TEXT_SCRIPT =
+            "var terms = arguments[0], body = document.body, text = '';"
+            + "if (body && typeof body.innerText === 'string') { text = body.innerText; }"
+            + "else if (body) {"
+            + "  var walker = document.createTreeWalker(body, NodeFilter.SHOW_TEXT, {acceptNode: function(n) {"
+            + "    var tag = n.parentNode && n.parentNode.nodeName;"
+            + "    return tag === 'SCRIPT' || tag === 'STYLE' || tag === 'NOSCRIPT'"
+            + "      ? NodeFilter.FILTER_REJECT : NodeFilter.FILTER_ACCEPT; }}, false);"
+            + "  var parts = []; while (walker.nextNode()) { parts.push(walker.currentNode.nodeValue); }"
+            + "  text = parts.join(' ');"
+            + "}"
+            + "text = text.toLowerCase(); var title = (document.title || '').toLowerCase(), result = [];"
+            + "for (var i = 0; i < terms.length; i++) {"
+            + "  var term = String(terms[i]).toLowerCase();"
+            + "  result.push([title.indexOf(term), text.indexOf(term)]);"
+            + "}"
+            + "return result;";
+    private static final int TITLE_OFFSET = 0;
+    private static final int PAGE_OFFSET = 1;
+    private static final String TEXT_CACHE_PREFIX = "text:";
+
     private WebDriver driver;
+    private WaitEngine waitEngine;
+    private PageStateCache pageCache;
 
     public SeleniumActions(WebDriver driver) {
         this.driver = driver;
+        this.waitEngine = new WaitEngine(driver);
+        this.pageCache = PageStateCache.forDriver(driver);
     }
 
     /**
@@ -26,7 +68,37 @@ public class SeleniumActions {
      */
     public void navigateTo(String url) {
         LoggerManager.debug("Navigating to URL: " + url);
+        long start = System.nanoTime();
+        pageCache.invalidate("navigate to " + url);
         driver.get(url);
+        if (isPageLoadStrategyNone()) {
+            // With the "none" strategy get() returns before the DOM is parsed
+            waitUntil(Conditions.documentReady());
+        }
+        LoggerManager.debug("Page ready in " + (System.nanoTime() - start) / 1_000_000 + " ms: " + url);
+    }
+
+    private boolean isPageLoadStrategyNone() {
+        if (!(driver instanceof HasCapabilities)) {
+            return false;
+        }
+        Object strategy = ((HasCapabilities) driver).getCapabilities().getCapability(CapabilityType.PAGE_LOAD_STRATEGY);
+        return strategy != null && PageLoadStrategy.NONE.toString().equals(strategy.toString());
+    }
+
+    /**
+     * Collect page-load timings and JS heap usage of the current page from the browser.
+     * Used to compare the lean and full browser profiles.
+     * @return Metrics by name, or an empty map if the driver cannot run scripts.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> getPageMetrics() {
+        if (!(driver instanceof JavascriptExecutor)) {
+            return Collections.emptyMap();
+        }
+        Map<String, Object> metrics = (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(PAGE_METRICS_SCRIPT);
+        LoggerManager.debug("Page metrics: " + metrics);
+        return metrics;
     }
 
 
@@ -37,8 +109,18 @@ public class SeleniumActions {
      */
     public void clearAndType(WebElement element, String text) {
         LoggerManager.debug("Clearing and typing text: '" + text + "' into element: " + element.toString());
+        waitUntil(Conditions.visible(element));
         element.clear();
         element.sendKeys(text);
+        pageCache.invalidate("typed into " + element);
+    }
+
+    /**
+     * Start a batch of element interactions that runs in as few WebDriver commands as possible.
+     * @return A new ActionPipeline; call run() to execute it.
+     */
+    public ActionPipeline pipeline() {
+        return new ActionPipeline(driver, this);
     }
 
     /**
@@ -47,7 +129,9 @@ public class SeleniumActions {
      */
     public void click(WebElement element) {
         LoggerManager.debug("Clicking on element: " + element.toString());
+        waitUntil(Conditions.clickable(element));
         element.click();
+        pageCache.invalidate("clicked " + element);
     }
 
     /**
@@ -57,6 +141,69 @@ public class SeleniumActions {
     public void pressEnter(WebElement element) {
         LoggerManager.debug("Pressing Enter key on element: " + element.toString());
         element.sendKeys(Keys.ENTER);
+        pageCache.invalidate("pressed Enter on " + element);
+    }
+
+    /**
+     * Wait for a condition using the default timeout.
+     * @param condition The condition to wait for (see Conditions).
+     * @return The value produced by the condition.
+     */
+    public <T> T waitUntil(Function<? super WebDriver, T> condition) {
+        return waitEngine.until(condition);
+    }
+
+    /**
+     * Wait for a condition using a per-call timeout.
+     * @param condition The condition to wait for (see Conditions).
+     * @param timeout Maximum time to wait.
+     * @return The value produced by the condition.
+     */
+    public <T> T waitUntil(Function<? super WebDriver, T> condition, Duration timeout) {
+        return waitEngine.until(condition, timeout);
+    }
+
+    /**
+     * Find an element, waiting until it is present.
+     * @param locator The element locator.
+     * @return The WebElement found.
+     */
+    public WebElement findElement(By locator) {
+        LoggerManager.debug("Finding element: " + locator);
+        return waitUntil(Conditions.present(locator));
+    }
+
+    /**
+     * Check if an element is present, waiting at most the given timeout.
+     * @param locator The element locator.
+     * @param timeout Maximum time to wait.
+     * @return True if the element appeared in time.
+     */
+    public boolean isElementPresent(By locator, Duration timeout) {
+        boolean isPresent = waitEngine.isSatisfied(Conditions.present(locator), timeout);
+        LoggerManager.debug("Checking if element " + locator + " is present: " + isPresent);
+        return isPresent;
+    }
+
+    /**
+     * Check if an element is absent right now, without waiting.
+     * @param locator The element locator.
+     * @return True if no element matches the locator.
+     */
+    public boolean isElementAbsent(By locator) {
+        return isElementAbsent(locator, Duration.ZERO);
+    }
+
+    /**
+     * Check if an element is absent, waiting at most the given timeout for it to disappear.
+     * @param locator The element locator.
+     * @param timeout Maximum time to wait.
+     * @return True if no element matches the locator within the timeout.
+     */
+    public boolean isElementAbsent(By locator, Duration timeout) {
+        boolean isAbsent = waitEngine.isSatisfied(Conditions.absent(locator), timeout);
+        LoggerManager.debug("Checking if element " + locator + " is absent: " + isAbsent);
+        return isAbsent;
     }
 
     /**
@@ -64,7 +211,7 @@ public class SeleniumActions {
      * @return The current URL as a String.
      */
     public String getCurrentUrl() {
-        String url = driver.getCurrentUrl();
+        String url = pageCache.get("url", driver::getCurrentUrl);
         LoggerManager.debug("Current URL: " + url);
         return url;
     }
@@ -74,7 +221,7 @@ public class SeleniumActions {
      * @return The page title as a String.
      */
     public String getTitle() {
-        String title = driver.getTitle();
+        String title = pageCache.get("title", driver::getTitle);
         LoggerManager.debug("Page title: " + title);
         return title;
     }
@@ -85,36 +232,141 @@ public class SeleniumActions {
      */
     public String getPageSource() {
         LoggerManager.debug("Getting page source");
-        return driver.getPageSource();
+        return pageCache.get("source", driver::getPageSource);
     }
 
     /**
-     * Take a screenshot and attach it to the Allure report.
+     * Take a screenshot and attach it to the Allure report, if the capture policy allows it.
+     * Encoding and the attachment write happen in the background (see ScreenshotPipeline).
      * @param name The name of the screenshot.
      */
     public void takeScreenshot(String name) {
+        if (!(driver instanceof TakesScreenshot)) {
+            LoggerManager.debug("Driver does not support screenshots, skipping: " + name);
+            return;
+        }
+        if (!ScreenshotPipeline.getInstance().shouldCapture()) {
+            LoggerManager.trace("Screenshot skipped by capture policy: " + name);
+            return;
+        }
         LoggerManager.debug("Taking screenshot: " + name);
         try {
             byte[] screenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
-            Allure.addAttachment(name, "image/png", new ByteArrayInputStream(screenshot), "png");
+            ScreenshotPipeline.getInstance().attach(name, screenshot);
         } catch (WebDriverException e) {
             LoggerManager.error("Failed to take screenshot: " + name + ". Error: " + e.getMessage());
         }
     }
 
     /**
-     * Check if a text is present in the page source.
-     * Performs a case-insensitive check.
+     * Check if a text is present in the rendered page text.
+     * Performs a case-insensitive check inside the browser, so the page source is not transferred.
      * @param text The text to check for.
      * @return True if the text is present, false otherwise.
      */
     public boolean isTextPresentInPage(String text) {
-        String pageSource = driver.getPageSource().toLowerCase();
-        boolean isPresent = pageSource.contains(text.toLowerCase());
+        boolean isPresent = findTextOffsets(text).get(text)[PAGE_OFFSET] >= 0;
         LoggerManager.debug("Checking if text '" + text + "' is present in page: " + isPresent);
         return isPresent;
     }
 
+    /**
+     * Check several texts against the rendered page text in a single round trip.
+     * Performs a case-insensitive check.
+     * @param texts The texts to check for.
+     * @return For each text, true if it is present in the page.
+     */
+    public Map<String, Boolean> areTextsPresentInPage(String... texts) {
+        Map<String, Boolean> presence = new LinkedHashMap<>();
+        for (Map.Entry<String, long[]> entry : findTextOffsets(texts).entrySet()) {
+            presence.put(entry.getKey(), entry.getValue()[PAGE_OFFSET] >= 0);
+        }
+        LoggerManager.debug("Checking if texts are present in page: " + presence);
+        return presence;
+    }
+
+    /**
+     * Check if a text is present in the page title or in the rendered page text, in a single round trip.
+     * Performs a case-insensitive check.
+     * @param text The text to check for.
+     * @return True if the title or the page contains the text.
+     */
+    public boolean isTextPresentInTitleOrPage(String text) {
+        long[] offsets = findTextOffsets(text).get(text);
+        boolean isPresent = offsets[TITLE_OFFSET] >= 0 || offsets[PAGE_OFFSET] >= 0;
+        LoggerManager.debug("Checking if text '" + text + "' is present in title or page: " + isPresent);
+        return isPresent;
+    }
+
+    /**
+     * Find the first case-insensitive match offset of each text in the page title and in the
+     * rendered page text (innerText, or the visible text nodes when innerText is unavailable).
+     * The search runs in the browser with one executeScript call; only the offsets come back.
+     * Results are cached for the current page version, so only new texts are searched.
+     * @param texts The texts to search for.
+     * @return For each text, {titleOffset, pageOffset}, where -1 means not found.
+     */
+    public Map<String, long[]> findTextOffsets(String... texts) {
+        Map<String, long[]> offsets = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String text : texts) {
+            long[] cached = (long[]) pageCache.getIfPresent(TEXT_CACHE_PREFIX + text);
+            offsets.put(text, cached);
+            if (cached == null) {
+                missing.add(text);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<String, long[]> found = searchTexts(missing);
+            for (Map.Entry<String, long[]> entry : found.entrySet()) {
+                pageCache.put(TEXT_CACHE_PREFIX + entry.getKey(), entry.getValue());
+                offsets.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return offsets;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, long[]> searchTexts(List<String> texts) {
+        if (!(driver instanceof JavascriptExecutor)) {
+            return searchTextsInPageSource(texts);
+        }
+        List<Object> matches;
+        try {
+            matches = (List<Object>) ((JavascriptExecutor) driver).executeScript(FIND_TEXT_SCRIPT, texts);
+        } catch (UnsupportedOperationException e) {
+            // JavaScript disabled (e.g. HtmlUnit with browser.htmlunit.javascript=false)
+            return searchTextsInPageSource(texts);
+        }
+
+        Map<String, long[]> offsets = new LinkedHashMap<>();
+        for (int i = 0; i < texts.size(); i++) {
+            List<Object> match = (List<Object>) matches.get(i);
+            offsets.put(texts.get(i), new long[]{((Number) match.get(TITLE_OFFSET)).longValue(),
+                    ((Number) match.get(PAGE_OFFSET)).longValue()});
+        }
+        return offsets;
+    }
+
+    private Map<String, long[]> searchTextsInPageSource(List<String> texts) {
+        String title = getTitle().toLowerCase();
+        String pageSource = getPageSource().toLowerCase();
+        Map<String, long[]> offsets = new LinkedHashMap<>();
+        for (String text : texts) {
+            offsets.put(text, new long[]{title.indexOf(text.toLowerCase()), pageSource.indexOf(text.toLowerCase())});
+        }
+        return offsets;
+    }
+
+    /**
+     * Get the page read cache shared by every SeleniumActions on this driver.
+     * @return The PageStateCache for the driver.
+     */
+    public PageStateCache getPageCache() {
+        return pageCache;
+    }
+
     /**
      * Check if a text is present in the page title.
      * Performs a case-insensitive check.
@@ -122,7 +374,7 @@ public class SeleniumActions {
      * @return True if the text is present, false otherwise.
      */
     public boolean isTextPresentInTitle(String text) {
-        String title = driver.getTitle().toLowerCase();
+        String title = getTitle().toLowerCase();
         boolean isPresent = title.contains(text.toLowerCase());
         LoggerManager.debug("Checking if text '" + text + "' is present in title: " + isPresent);
         return isPresent;
@@ -0,0 +1,245 @@
+package br.com.selenium.api.attachments;
+
+import br.com.selenium.api.annotation.Logger;
+import br.com.selenium.api.reporting.BufferedResultsWriter;
+import br.com.selenium.api.reporting.ResultsDirectory;
+import br.com.selenium.api.utils.LoggerManager;
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.model.Attachment;
+import io.qameta.allure.model.StepResult;
+import io.qameta.allure.model.WithAttachments;
+import io.qameta.allure.model.WithSteps;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed storage for Allure attachments.
+ * Attachment files are named after the SHA-256 of their content, so identical content is
+ * written to the results directory once and every later attachment references that file.
+ * Allure only needs the file name in the result JSON, so the reference costs nothing.
+ * Static files (see attachFile) are hashed once per run and copied with FileChannel.transferTo
+ * the first time, so attaching them again in later scenarios does no I/O at all.
+ */
+@Logger(level = "DEBUG")
+public class AttachmentStore {
+    private static final String ATTACHMENT_SUFFIX = "-attachment.";
+    private static AttachmentStore instance;
+
+    private final Path resultsDirectory;
+    private final Set<String> stored = ConcurrentHashMap.newKeySet();
+    private final Map<Path, String> files = new ConcurrentHashMap<>();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+
+    public AttachmentStore(Path resultsDirectory) {
+        this.resultsDirectory = resultsDirectory;
+    }
+
+    /**
+     * Gets the store for the results directory of this worker (see ResultsDirectory).
+     * @return The AttachmentStore instance
+     */
+    public static synchronized AttachmentStore getInstance() {
+        if (instance == null) {
+            instance = new AttachmentStore(ResultsDirectory.current());
+        }
+        return instance;
+    }
+
+    /**
+     * Attachment file name for a content hash.
+     * @param hash The content hash, see sha256
+     * @param extension The file extension, without the dot
+     * @return The attachment source name
+     */
+    public static String sourceFor(String hash, String extension) {
+        return hash + ATTACHMENT_SUFFIX + extension;
+    }
+
+    /**
+     * Claim a content-addressed attachment file.
+     * @param source The attachment source name
+     * @param size The content size, for the statistics
+     * @return True if the caller must write the file, false if it is already stored
+     */
+    public boolean claim(String source, long size) {
+        // Another JVM may have stored it gzipped (see BufferedResultsWriter)
+        if (stored.add(source) && !Files.exists(resultsDirectory.resolve(source))
+                && !Files.exists(resultsDirectory.resolve(source + BufferedResultsWriter.GZIP_SUFFIX))) {
+            written.incrementAndGet();
+            return true;
+        }
+        deduplicated.incrementAndGet();
+        bytesSaved.addAndGet(size);
+        return false;
+    }
+
+    /**
+     * Point an attachment registered by AllureLifecycle.prepareAttachment to another file.
+     * The attachment is searched in the current test case and all of its steps.
+     * If it cannot be found the file is stored but no result references it, which is logged.
+     * @param lifecycle The Allure lifecycle
+     * @param preparedSource The source returned by prepareAttachment
+     * @param source The content-addressed source to use instead
+     */
+    public static void relink(AllureLifecycle lifecycle, String preparedSource, String source) {
+        if (!lifecycle.getCurrentTestCase().isPresent()) {
+            LoggerManager.warn("No running Allure test case, attachment " + source + " is not linked to any result");
+            return;
+        }
+        lifecycle.updateTestCase(testResult -> {
+            if (!relink(testResult, preparedSource, source)) {
+                LoggerManager.warn("Attachment " + preparedSource + " not found in test case " + testResult.getName()
+                        + ", " + source + " is not linked to any result");
+            }
+        });
+    }
+
+    /**
+     * Attach a static file to the current Allure step or test case.
+     * The file is hashed and copied to the results directory on first use only.
+     * @param name The attachment name
+     * @param type The MIME type
+     * @param extension The file extension, without the dot
+     * @param file The file to attach
+     */
+    public void attachFile(String name, String type, String extension, Path file) throws IOException {
+        String source = storeFile(file, extension);
+        AllureLifecycle lifecycle = Allure.getLifecycle();
+        relink(lifecycle, lifecycle.prepareAttachment(name, type, extension), source);
+    }
+
+    /**
+     * Store a static file in the results directory, once per run.
+     * @param file The file to store
+     * @param extension The file extension, without the dot
+     * @return The attachment source name of the stored file
+     */
+    public String storeFile(Path file, String extension) throws IOException {
+        Path key = file.toAbsolutePath().normalize();
+        String source = files.get(key);
+        if (source != null) {
+            deduplicated.incrementAndGet();
+            bytesSaved.addAndGet(Files.size(key));
+            return source;
+        }
+        synchronized (files) {
+            source = files.get(key);
+            if (source == null) {
+                source = sourceFor(sha256(key), extension);
+                if (claim(source, Files.size(key))) {
+                    copy(key, resultsDirectory.resolve(source));
+                }
+                files.put(key, source);
+            }
+        }
+        return source;
+    }
+
+    public Path getResultsDirectory() {
+        return resultsDirectory;
+    }
+
+    /**
+     * Log how many attachment files were written and how many were deduplicated.
+     */
+    public void logStats() {
+        LoggerManager.info(String.format("Attachments: %d file(s) written, %d deduplicated (%d KB saved)",
+                written.get(), deduplicated.get(), bytesSaved.get() / 1024));
+    }
+
+    /**
+     * Hex SHA-256 of some content.
+     * @param content The content
+     * @return The lowercase hex digest
+     */
+    public static String sha256(byte[] content) {
+        try {
+            return toHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Lowercase hex form of a digest.
+     */
+    public static String toHex(byte[] digest) {
+        StringBuilder hex = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static String sha256(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+            return toHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Copy a file kernel-side and publish it with an atomic rename, so the results
+     * directory never shows a partial attachment.
+     */
+    private static void copy(Path file, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling("." + target.getFileName() + ".tmp");
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            for (long position = 0; position < size; ) {
+                position += in.transferTo(position, size - position, out);
+            }
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        BufferedResultsWriter.notifyPublished(target);
+    }
+
+    private static boolean relink(Object node, String preparedSource, String source) {
+        if (node instanceof WithAttachments) {
+            for (Attachment attachment : ((WithAttachments) node).getAttachments()) {
+                if (preparedSource.equals(attachment.getSource())) {
+                    attachment.setSource(source);
+                    return true;
+                }
+            }
+        }
+        if (node instanceof WithSteps) {
+            for (StepResult step : ((WithSteps) node).getSteps()) {
+                if (relink(step, preparedSource, source)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,153 @@
+package br.com.selenium.api.database;
+
+import br.com.selenium.api.annotation.Logger;
+import br.com.selenium.api.utils.ConfigManager;
+import br.com.selenium.api.utils.LoggerManager;
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Rows of a named data set, read lazily from the database a page at a time.
+ * Only one page (-Ddataset.page.size, default 500) is in memory, and the connection goes back
+ * to the pool between pages, so tens of thousands of rows cost no more than a few hundred.
+ *
+ * The rows come from -Ddataset.&lt;name&gt;.query when it is set (no LIMIT, paging is appended to it;
+ * add an ORDER BY for a stable order), otherwise from the table &lt;name&gt;.
+ * Before the first read, the fixture script datasets/&lt;name&gt;.sql
+ * on the classpath is run once per JVM if it exists, so fixture tables can create themselves.
+ * Values are read by column label, in the order of the requested columns; SQL NULL becomes "".
+ *
+ * Example:
+ * for (List&lt;String&gt; row : Dataset.of("usuarios", Arrays.asList("id", "nome"))) { ... }
+ */
+@Logger(level = "INFO")
+public class Dataset implements Iterable<List<String>> {
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    private static final Set<String> FIXTURES_RUN = ConcurrentHashMap.newKeySet();
+
+    private final String name;
+    private final List<String> columns;
+    private final String sql;
+    private final int pageSize;
+
+    private Dataset(String name, List<String> columns) {
+        this.name = name;
+        this.columns = Collections.unmodifiableList(new ArrayList<>(columns));
+        this.pageSize = Math.max(1, ConfigManager.getInt("dataset.page.size", 500));
+        String query = ConfigManager.get("dataset." + name + ".query", null);
+        if (query == null) {
+            StringBuilder select = new StringBuilder("SELECT ");
+            for (String column : columns) {
+                select.append(select.length() > 7 ? ", " : "").append(identifier(column));
+            }
+            query = select.append(" FROM ").append(identifier(name)).toString();
+        }
+        this.sql = query + " OFFSET ? ROWS FETCH NEXT ? ROWS ONLY";
+    }
+
+    /**
+     * @param name The data set, a table name or the name of a configured query
+     * @param columns The columns to read, e.g. the header of an Examples table
+     * @return The data set; nothing is read until it is iterated
+     */
+    public static Dataset of(String name, List<String> columns) {
+        return new Dataset(name, columns);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    @Override
+    public Iterator<List<String>> iterator() {
+        runFixture(name);
+        return new Iterator<List<String>>() {
+            private List<List<String>> page = Collections.emptyList();
+            private int position;
+            private long offset;
+            private boolean last;
+
+            @Override
+            public boolean hasNext() {
+                if (position == page.size() && !last) {
+                    page = fetch(offset);
+                    offset += page.size();
+                    position = 0;
+                    last = page.size() < pageSize;
+                }
+                return position < page.size();
+            }
+
+            @Override
+            public List<String> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.get(position++);
+            }
+        };
+    }
+
+    private List<List<String>> fetch(long offset) {
+        try (Connection connection = DatabaseManager.getConnection(Dataset.class);
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, offset);
+            statement.setInt(2, pageSize);
+            try (ResultSet rows = statement.executeQuery()) {
+                List<List<String>> page = new ArrayList<>(pageSize);
+                while (rows.next()) {
+                    List<String> row = new ArrayList<>(columns.size());
+                    for (String column : columns) {
+                        String value = rows.getString(column);
+                        row.add(value == null ? "" : value);
+                    }
+                    page.add(row);
+                }
+                return page;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read data set " + name + " at row " + offset + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void runFixture(String name) {
+        if (!FIXTURES_RUN.add(name)) {
+            return;
+        }
+        try (InputStream in = Dataset.class.getResourceAsStream("/datasets/" + name + ".sql")) {
+            if (in != null) {
+                DatabaseManager.executeScript(IOUtils.toString(in, StandardCharsets.UTF_8));
+                LoggerManager.info("Loaded data set fixture datasets/" + name + ".sql");
+            }
+        } catch (IOException | SQLException e) {
+            FIXTURES_RUN.remove(name);
+            throw new IllegalStateException("Invalid data set fixture datasets/" + name + ".sql: " + e.getMessage(), e);
+        }
+    }
+
+    private static String identifier(String name) {
+        if (!IDENTIFIER.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid column or table name in data set: " + name);
+        }
+        return name;
+    }
+}
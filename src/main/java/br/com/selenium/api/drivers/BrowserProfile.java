@@ -0,0 +1,42 @@
+package br.com.selenium.api.drivers;
+
+import br.com.selenium.api.utils.ConfigManager;
+
+import java.util.Collection;
+
+/**
+ * Browser fidelity profiles supported by WebDriverFactory.
+ * FULL loads every resource with the default page-load strategy.
+ * LEAN uses an eager page-load strategy and blocks images, media and blocklisted hosts.
+ */
+public enum BrowserProfile {
+    FULL,
+    LEAN;
+
+    public static final String LEAN_TAG = "@lean";
+    public static final String VISUAL_TAG = "@visual";
+
+    /**
+     * Resolve the profile configured for the run (-Dbrowser.profile=lean or BROWSER_PROFILE=lean).
+     * @return The configured profile, FULL by default
+     */
+    public static BrowserProfile fromConfig() {
+        return "lean".equalsIgnoreCase(ConfigManager.get("browser.profile", "full")) ? LEAN : FULL;
+    }
+
+    /**
+     * Resolve the profile for a scenario. @visual forces FULL and @lean forces LEAN,
+     * otherwise the profile configured for the run is used.
+     * @param tags The scenario tags, including inherited feature tags
+     * @return The profile to use for the scenario
+     */
+    public static BrowserProfile fromTags(Collection<String> tags) {
+        if (tags.contains(VISUAL_TAG)) {
+            return FULL;
+        }
+        if (tags.contains(LEAN_TAG)) {
+            return LEAN;
+        }
+        return fromConfig();
+    }
+}
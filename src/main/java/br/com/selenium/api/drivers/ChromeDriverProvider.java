@@ -0,0 +1,171 @@
+package br.com.selenium.api.drivers;
+
+import br.com.selenium.api.annotation.Logger;
+import br.com.selenium.api.utils.ConfigManager;
+import br.com.selenium.api.utils.LoggerManager;
+import io.github.bonigarcia.wdm.WebDriverManager;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Default backend: a real Chrome browser driven through ChromeDriver.
+ * Runs headless on Linux/Docker and honours the lean browser profile.
+ */
+@Logger(level = "DEBUG")
+public class ChromeDriverProvider implements DriverProvider {
+    public static final String NAME = "chrome";
+
+    private static final String DEFAULT_LEAN_BLOCKLIST = "*.doubleclick.net,*.googlesyndication.com,"
+            + "*.google-analytics.com,*.googletagmanager.com,fonts.googleapis.com,fonts.gstatic.com";
+    private static final int CONTENT_SETTING_BLOCK = 2;
+
+    private static final String OS_NAME = System.getProperty("os.name").toLowerCase();
+    private static final boolean IS_WINDOWS = OS_NAME.contains("win");
+    private static final boolean IS_DOCKER = new File("/.dockerenv").exists() || System.getenv("DOCKER_CONTAINER") != null;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public WebDriver createDriver(BrowserProfile profile) {
+        LoggerManager.info("Ambiente detectado: " + (IS_WINDOWS ? "Windows" : "Linux/Docker"));
+
+        try {
+            // Configurar WebDriverManager para detectar automaticamente a versão do Chrome
+            WebDriverManager.chromedriver().setup();
+
+            ChromeOptions options = createChromeOptions(profile);
+
+            LoggerManager.info("Iniciando ChromeDriver com as opções configuradas (perfil " + profile + ")");
+            return new ChromeDriver(options);
+        } catch (Exception e) {
+            return handleWebDriverSetupError(e);
+        }
+    }
+
+    private ChromeOptions createChromeOptions(BrowserProfile profile) {
+        ChromeOptions options = new ChromeOptions();
+
+        // Configurações comuns para todos os ambientes
+        options.addArguments("--disable-gpu");
+        options.addArguments("--window-size=1920,1080");
+        options.addArguments("--no-sandbox");
+        options.addArguments("--disable-dev-shm-usage");
+        options.addArguments("--disable-extensions");
+        options.addArguments("--disable-popup-blocking");
+        options.addArguments("--disable-infobars");
+
+        if (IS_DOCKER || !IS_WINDOWS) {
+    
+            LoggerManager.debug("Configurando para ambiente Docker/Linux");
+            options.addArguments("--headless");
+
+
+            String chromeBinary = System.getenv("CHROME_BIN");
+            if (chromeBinary != null && !chromeBinary.isEmpty()) {
+                LoggerManager.debug("Usando Chrome binário em: " + chromeBinary);
+                options.setBinary(chromeBinary);
+            }
+        } else {
+       
+            LoggerManager.debug("Configurando para ambiente Windows");
+            configureChromePathForWindows(options);
+        }
+
+        if (profile == BrowserProfile.LEAN) {
+            applyLeanProfile(options);
+        }
+
+        return options;
+    }
+
+    /**
+     * Configures the lean profile: eager (or none) page-load strategy,
+     * images and media blocked through content settings, and blocklisted hosts
+     * resolved to NOTFOUND so their requests fail without touching the network.
+     */
+    private void applyLeanProfile(ChromeOptions options) {
+        LoggerManager.debug("Aplicando perfil leve do navegador");
+
+        String strategy = ConfigManager.get("browser.lean.pageLoadStrategy", "eager");
+        PageLoadStrategy pageLoadStrategy = PageLoadStrategy.fromString(strategy.toLowerCase());
+        options.setPageLoadStrategy(pageLoadStrategy != null ? pageLoadStrategy : PageLoadStrategy.EAGER);
+
+        Map<String, Object> prefs = new HashMap<>();
+        prefs.put("profile.managed_default_content_settings.images", CONTENT_SETTING_BLOCK);
+        prefs.put("profile.managed_default_content_settings.media_stream", CONTENT_SETTING_BLOCK);
+        prefs.put("profile.managed_default_content_settings.plugins", CONTENT_SETTING_BLOCK);
+        options.setExperimentalOption("prefs", prefs);
+        options.addArguments("--blink-settings=imagesEnabled=false");
+        options.addArguments("--autoplay-policy=user-gesture-required");
+        options.addArguments("--mute-audio");
+
+        String hostRules = buildHostResolverRules(ConfigManager.get("browser.lean.blocklist", DEFAULT_LEAN_BLOCKLIST));
+        if (!hostRules.isEmpty()) {
+            LoggerManager.debug("Bloqueando hosts: " + hostRules);
+            options.addArguments("--host-resolver-rules=" + hostRules);
+        }
+    }
+
+    /**
+     * Converts a comma separated list of host patterns or URLs into Chrome host resolver rules.
+     * Example: "*.doubleclick.net,https://cdn.example.com/fonts/" becomes
+     * "MAP *.doubleclick.net ~NOTFOUND, MAP cdn.example.com ~NOTFOUND".
+     * Blocking happens per host, the path of a URL entry is ignored.
+     */
+    static String buildHostResolverRules(String blocklist) {
+        List<String> rules = new ArrayList<>();
+        for (String entry : blocklist.split(",")) {
+            String host = entry.trim();
+            if (host.isEmpty()) {
+                continue;
+            }
+            if (host.contains("://")) {
+                host = host.substring(host.indexOf("://") + 3);
+            }
+            if (host.contains("/")) {
+                host = host.substring(0, host.indexOf('/'));
+            }
+            rules.add("MAP " + host + " ~NOTFOUND");
+        }
+        return String.join(", ", rules);
+    }
+    
+
+    private void configureChromePathForWindows(ChromeOptions options) {
+  
+        File defaultChromePath = new File("C:\\Program Files (x86)\\Google\\Chrome\\Application\\chrome.exe");
+        File defaultChromePath2 = new File("C:\\Program Files\\Google\\Chrome\\Application\\chrome.exe");
+
+        if (defaultChromePath.exists()) {
+            options.setBinary(defaultChromePath.getAbsolutePath());
+            LoggerManager.debug("Usando Chrome em: " + defaultChromePath.getAbsolutePath());
+        } else if (defaultChromePath2.exists()) {
+            options.setBinary(defaultChromePath2.getAbsolutePath());
+            LoggerManager.debug("Usando Chrome em: " + defaultChromePath2.getAbsolutePath());
+        } else {
+            LoggerManager.warn("Caminho padrão do Chrome não encontrado. Usando configuração padrão.");
+        }
+    }
+    
+    private WebDriver handleWebDriverSetupError(Exception e) {
+        LoggerManager.error("Erro ao configurar WebDriver: " + e.getMessage(), e);
+        LoggerManager.info("Tentando configuração alternativa...");
+        WebDriverManager.chromedriver().setup();
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments("--headless");
+        options.addArguments("--no-sandbox");
+        options.addArguments("--disable-dev-shm-usage");
+        return new ChromeDriver(options);
+    }
+}
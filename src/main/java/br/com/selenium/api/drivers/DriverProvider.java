@@ -0,0 +1,26 @@
+package br.com.selenium.api.drivers;
+
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Service provider interface for WebDriver backends.
+ * Implementations are discovered with java.util.ServiceLoader, so new backends are
+ * added by listing them in META-INF/services/br.com.selenium.api.drivers.DriverProvider.
+ * A backend is selected per scenario with the tag "@" + getName(), or for the whole run
+ * with -Dbrowser.driver=name (BROWSER_DRIVER=name).
+ */
+public interface DriverProvider {
+
+    /**
+     * Unique name of the backend, also used as its Cucumber tag.
+     * @return The backend name, e.g. "chrome"
+     */
+    String getName();
+
+    /**
+     * Creates a new WebDriver for this backend.
+     * @param profile The browser profile requested for the scenario
+     * @return A new WebDriver instance
+     */
+    WebDriver createDriver(BrowserProfile profile);
+}
@@ -0,0 +1,30 @@
+package br.com.selenium.api.drivers;
+
+import br.com.selenium.api.annotation.Logger;
+import br.com.selenium.api.utils.ConfigManager;
+import br.com.selenium.api.utils.LoggerManager;
+import com.gargoylesoftware.htmlunit.BrowserVersion;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
+
+/**
+ * JVM-only backend based on HtmlUnit.
+ * Needs no browser installation and starts in milliseconds, which makes it a good fit
+ * for scenarios that only check text, titles or URLs. It cannot take screenshots.
+ */
+@Logger(level = "DEBUG")
+public class HtmlUnitDriverProvider implements DriverProvider {
+    public static final String NAME = "htmlunit";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public WebDriver createDriver(BrowserProfile profile) {
+        boolean javascriptEnabled = ConfigManager.getBoolean("browser.htmlunit.javascript", true);
+        LoggerManager.info("Iniciando HtmlUnitDriver (javascript " + (javascriptEnabled ? "ativado" : "desativado") + ")");
+        return new HtmlUnitDriver(BrowserVersion.CHROME, javascriptEnabled);
+    }
+}
@@ -1,25 +1,37 @@
 package br.com.selenium.api.drivers;
 
+import br.com.selenium.api.actions.PageStateCache;
+import br.com.selenium.api.utils.ConfigManager;
 import br.com.selenium.api.utils.LoggerManager;
-import io.github.bonigarcia.wdm.WebDriverManager;
+import br.com.selenium.api.waits.WaitEngine;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.WebDriverException;
 
-import java.io.File;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Singleton factory class responsible for creating and managing WebDriver instances.
  * This class separates the driver management responsibility from the Hooks class.
+ * The browser backend is provided by a DriverProvider selected per scenario tag or configuration.
  */
 public class WebDriverFactory {
+    private static final List<String> BROWSERLESS_TAGS =
+            Arrays.asList(ConfigManager.get("browser.skip.tags", "@api,@db").split("\\s*,\\s*"));
     private static WebDriverFactory instance;
     private WebDriver driver;
-    
-    private static final String OS_NAME = System.getProperty("os.name").toLowerCase();
-    private static final boolean IS_WINDOWS = OS_NAME.contains("win");
-    private static final boolean IS_DOCKER = new File("/.dockerenv").exists() || System.getenv("DOCKER_CONTAINER") != null;
+    private boolean shutdownHookRegistered;
+    private String browserlessTag;
+    private int launches;
+    private BrowserProfile profile = BrowserProfile.fromConfig();
+    private final Map<String, DriverProvider> providers = loadProviders();
+    private DriverProvider provider = resolveProvider(ConfigManager.get("browser.driver", ChromeDriverProvider.NAME));
     
     // Private constructor to enforce singleton pattern
     private WebDriverFactory() {
@@ -40,112 +52,204 @@ public class WebDriverFactory {
     /**
      * Creates and returns a WebDriver instance if one doesn't exist,
      * or returns the existing instance.
+     * The browser is only started here, on first real use, so scenarios that never
+     * touch the UI never start one.
      * @return The WebDriver instance
+     * @throws IllegalStateException If the current scenario is tagged as browserless (e.g. @api)
      */
     public synchronized WebDriver getDriver() {
+        if (browserlessTag != null) {
+            throw new IllegalStateException("Cenário marcado com " + browserlessTag + " não usa navegador"
+                    + " (veja browser.skip.tags)");
+        }
         if (driver == null) {
             initializeDriver();
         }
         return driver;
     }
-    
+
     /**
-     * Initializes the WebDriver with appropriate settings
+     * Returns the running driver without starting one.
+     * @return The WebDriver instance, or null if no browser is running
      */
-    private void initializeDriver() {
-        LoggerManager.info("Ambiente detectado: " + (IS_WINDOWS ? "Windows" : "Linux/Docker"));
+    public synchronized WebDriver getCurrentDriver() {
+        return driver;
+    }
 
-        try {
-            // Configurar WebDriverManager para detectar automaticamente a versão do Chrome
-            WebDriverManager.chromedriver().setup();
+    /**
+     * @return True if the current scenario is tagged as not using a browser
+     */
+    public synchronized boolean isBrowserless() {
+        return browserlessTag != null;
+    }
 
-            ChromeOptions options = createChromeOptions();
+    /**
+     * Selects backend and profile for a scenario from its tags.
+     * A tag named after a provider (e.g. @htmlunit) selects that backend,
+     * @lean and @visual select the profile; otherwise the run configuration applies.
+     * Scenarios tagged with one of -Dbrowser.skip.tags (default @api,@db) get no browser.
+     * @param tags The scenario tags
+     */
+    public synchronized void configureFor(Collection<String> tags) {
+        browserlessTag = null;
+        for (String tag : BROWSERLESS_TAGS) {
+            if (tags.contains(tag)) {
+                // Keep the current backend and profile: a warm driver stays usable for the next UI scenario
+                browserlessTag = tag;
+                return;
+            }
+        }
+        DriverProvider selected = resolveProvider(ConfigManager.get("browser.driver", ChromeDriverProvider.NAME));
+        for (DriverProvider candidate : providers.values()) {
+            if (tags.contains("@" + candidate.getName())) {
+                selected = candidate;
+                break;
+            }
+        }
+        useProvider(selected.getName());
+        useProfile(BrowserProfile.fromTags(tags));
+    }
 
-            LoggerManager.info("Iniciando ChromeDriver com as opções configuradas");
-            driver = new ChromeDriver(options);
-            
-            // Configure driver timeouts
-            configureDriverTimeouts();
-        } catch (Exception e) {
-            handleWebDriverSetupError(e);
+    /**
+     * Selects the driver backend for the next driver.
+     * If a driver from another backend is running it is quit.
+     * @param name The provider name, e.g. "chrome" or "htmlunit"
+     */
+    public synchronized void useProvider(String name) {
+        DriverProvider requested = resolveProvider(name);
+        if (requested != provider && driver != null) {
+            LoggerManager.info("Trocando driver de " + provider.getName() + " para " + requested.getName());
+            quitDriver();
         }
+        provider = requested;
+    }
+
+    public synchronized DriverProvider getProvider() {
+        return provider;
     }
     
     /**
-     * Configures timeouts for the WebDriver
+     * Selects the browser profile for the next driver.
+     * If a driver with a different profile is running it is quit, so the next
+     * call to getDriver starts a browser with the requested profile.
+     * @param profile The profile to use
      */
-    private void configureDriverTimeouts() {
+    public synchronized void useProfile(BrowserProfile profile) {
+        if (this.profile != profile && driver != null) {
+            LoggerManager.info("Trocando perfil do navegador de " + this.profile + " para " + profile);
+            quitDriver();
+        }
+        this.profile = profile;
+    }
 
-        driver.manage().timeouts().implicitlyWait(30, TimeUnit.SECONDS);
-        driver.manage().timeouts().pageLoadTimeout(60, TimeUnit.SECONDS);
-        driver.manage().timeouts().setScriptTimeout(30, TimeUnit.SECONDS);
-        driver.manage().window().maximize();
+    public synchronized BrowserProfile getProfile() {
+        return profile;
     }
-    
-    private ChromeOptions createChromeOptions() {
-        ChromeOptions options = new ChromeOptions();
 
-        // Configurações comuns para todos os ambientes
-        options.addArguments("--disable-gpu");
-        options.addArguments("--window-size=1920,1080");
-        options.addArguments("--no-sandbox");
-        options.addArguments("--disable-dev-shm-usage");
-        options.addArguments("--disable-extensions");
-        options.addArguments("--disable-popup-blocking");
-        options.addArguments("--disable-infobars");
+    /**
+     * Initializes the WebDriver with appropriate settings
+     */
+    private void initializeDriver() {
+        driver = provider.createDriver(profile);
+        launches++;
+        LoggerManager.info("Driver " + provider.getName() + " iniciado com sucesso (perfil " + profile + "), "
+                + launches + " navegador(es) iniciado(s) nesta execução");
 
-        if (IS_DOCKER || !IS_WINDOWS) {
+        // Configure driver timeouts
+        configureDriverTimeouts();
+    }
     
-            LoggerManager.debug("Configurando para ambiente Docker/Linux");
-            options.addArguments("--headless");
-
-
-            String chromeBinary = System.getenv("CHROME_BIN");
-            if (chromeBinary != null && !chromeBinary.isEmpty()) {
-                LoggerManager.debug("Usando Chrome binário em: " + chromeBinary);
-                options.setBinary(chromeBinary);
-            }
+    /**
+     * Configures timeouts for the WebDriver
+     */
+    private void configureDriverTimeouts() {
+        // Implicit waits are disabled while the WaitEngine handles synchronization,
+        // otherwise every negative lookup would block for the whole implicit timeout
+        if (WaitEngine.isEnabled()) {
+            driver.manage().timeouts().implicitlyWait(0, TimeUnit.SECONDS);
         } else {
-       
-            LoggerManager.debug("Configurando para ambiente Windows");
-            configureChromePathForWindows(options);
+            driver.manage().timeouts().implicitlyWait(30, TimeUnit.SECONDS);
+        }
+        driver.manage().timeouts().pageLoadTimeout(60, TimeUnit.SECONDS);
+        driver.manage().timeouts().setScriptTimeout(30, TimeUnit.SECONDS);
+        try {
+            driver.manage().window().maximize();
+        } catch (WebDriverException e) {
+            LoggerManager.debug("Driver " + provider.getName() + " não suporta maximizar a janela");
         }
-
-        return options;
     }
-    
-
-    private void configureChromePathForWindows(ChromeOptions options) {
-  
-        File defaultChromePath = new File("C:\\Program Files (x86)\\Google\\Chrome\\Application\\chrome.exe");
-        File defaultChromePath2 = new File("C:\\Program Files\\Google\\Chrome\\Application\\chrome.exe");
 
-        if (defaultChromePath.exists()) {
-            options.setBinary(defaultChromePath.getAbsolutePath());
-            LoggerManager.debug("Usando Chrome em: " + defaultChromePath.getAbsolutePath());
-        } else if (defaultChromePath2.exists()) {
-            options.setBinary(defaultChromePath2.getAbsolutePath());
-            LoggerManager.debug("Usando Chrome em: " + defaultChromePath2.getAbsolutePath());
-        } else {
-            LoggerManager.warn("Caminho padrão do Chrome não encontrado. Usando configuração padrão.");
+    private DriverProvider resolveProvider(String name) {
+        DriverProvider found = providers.get(name.toLowerCase());
+        if (found == null) {
+            LoggerManager.warn("Driver '" + name + "' não encontrado. Disponíveis: " + providers.keySet()
+                    + ". Usando " + ChromeDriverProvider.NAME);
+            found = providers.get(ChromeDriverProvider.NAME);
         }
+        return found;
     }
-    
-    private void handleWebDriverSetupError(Exception e) {
-        LoggerManager.error("Erro ao configurar WebDriver: " + e.getMessage(), e);
-        LoggerManager.info("Tentando configuração alternativa...");
-        WebDriverManager.chromedriver().setup();
-        ChromeOptions options = new ChromeOptions();
-        options.addArguments("--headless");
-        options.addArguments("--no-sandbox");
-        options.addArguments("--disable-dev-shm-usage");
-        driver = new ChromeDriver(options);
+
+    private static Map<String, DriverProvider> loadProviders() {
+        Map<String, DriverProvider> loaded = new LinkedHashMap<>();
+        for (DriverProvider driverProvider : ServiceLoader.load(DriverProvider.class)) {
+            loaded.put(driverProvider.getName().toLowerCase(), driverProvider);
+        }
+        // Chrome is always available, even if the service file is missing from the classpath
+        if (!loaded.containsKey(ChromeDriverProvider.NAME)) {
+            loaded.put(ChromeDriverProvider.NAME, new ChromeDriverProvider());
+        }
+        return loaded;
     }
     
     public synchronized void quitDriver() {
         if (driver != null) {
+            PageStateCache.evict(driver);
             driver.quit();
             driver = null;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Ends the use of the driver by a scenario.
+     * With -Ddriver.reuse=true (default in the rerun stage, -Drerun.failed=true) the browser is
+     * kept warm for the next scenario: the cookies, localStorage and sessionStorage of the current
+     * page are cleared and it goes back to about:blank. It is quit when that fails (e.g. JavaScript
+     * disabled) and when the JVM exits. Otherwise the driver is quit.
+     */
+    public synchronized void releaseDriver() {
+        if (driver == null) {
+            return;
+        }
+        if (!ConfigManager.getBoolean("driver.reuse", ConfigManager.getBoolean("rerun.failed", false))) {
+            quitDriver();
+            return;
+        }
+        try {
+            driver.manage().deleteAllCookies();
+            clearWebStorage();
+            driver.get("about:blank");
+            LoggerManager.debug("Driver " + provider.getName() + " mantido para o próximo cenário");
+            if (!shutdownHookRegistered) {
+                Runtime.getRuntime().addShutdownHook(new Thread(this::quitDriver, "webdriver-quit"));
+                shutdownHookRegistered = true;
+            }
+        } catch (WebDriverException | UnsupportedOperationException e) {
+            LoggerManager.warn("Não foi possível reutilizar o driver, encerrando: " + e.getMessage());
+            try {
+                quitDriver();
+            } catch (WebDriverException ignored) {
+                driver = null;
+            }
+        }
+    }
+
+    private void clearWebStorage() {
+        // Sem JavaScript o armazenamento não pode ser limpo: o driver não é considerado limpo
+        if (!(driver instanceof JavascriptExecutor)) {
+            throw new UnsupportedOperationException("driver sem JavaScript, armazenamento não pode ser limpo");
+        }
+        // Páginas sem origem (about:blank, data:) não têm armazenamento e lançam SecurityError
+        ((JavascriptExecutor) driver).executeScript(
+                "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}");
+    }
+}
@@ -1,22 +1,34 @@
 package br.com.selenium.api.hooks;
 
+import br.com.selenium.api.actions.PageStateCache;
+import br.com.selenium.api.actions.SeleniumActions;
 import br.com.selenium.api.annotation.Logger;
+import br.com.selenium.api.attachments.AttachmentStore;
 import br.com.selenium.api.drivers.WebDriverFactory;
+import br.com.selenium.api.pagefactory.ElementLookupStats;
+import br.com.selenium.api.profiling.ScenarioProfiler;
+import br.com.selenium.api.rerun.FailedScenarios;
+import br.com.selenium.api.scheduling.DurationStore;
+import br.com.selenium.api.scheduling.ScenarioKey;
+import br.com.selenium.api.screenshots.ScreenshotPipeline;
+import br.com.selenium.api.utils.ConfigManager;
 import br.com.selenium.api.utils.LoggerManager;
 import cucumber.api.Scenario;
 import cucumber.api.java.After;
 import cucumber.api.java.Before;
 import io.qameta.allure.Allure;
-import org.apache.commons.io.FileUtils;
+import io.qameta.allure.util.ResultsUtils;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
-import com.google.common.io.Files;
+import org.openqa.selenium.WebDriverException;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Hooks class for Cucumber test lifecycle management.
@@ -26,43 +38,104 @@ import java.net.URL;
 public class Hooks {
     private URL pathFile = Hooks.class.getResource("/files/");
     private static final String FILE_SEPARATOR = System.getProperty("file.separator");
+    private static final String RERUN_TAG = "rerun";
 
-    // Reference to the WebDriver - now obtained from WebDriverFactory
+    // Reference to the WebDriver used by the scenario, if it started one
     private WebDriver driver;
 
+    // Início do cenário, para o histórico de durações usado pelo ScheduledCucumber
+    private long inicioDoCenario;
+
+    // Janela do cenário na gravação JFR, anexada ao Allure se o cenário for lento
+    private ScenarioProfiler.Window janelaDoPerfil;
+
     @Before
     public void antesDoCenario(Scenario scenario) throws IOException {
-        // Get the WebDriver instance from the factory
-        driver = WebDriverFactory.getInstance().getDriver();
+        inicioDoCenario = System.nanoTime();
+        janelaDoPerfil = ScenarioProfiler.getInstance().start();
+
+        // Select backend (@chrome / @htmlunit) and profile (@lean / @visual) from the scenario tags
+        WebDriverFactory.getInstance().configureFor(scenario.getSourceTagNames());
 
-        LoggerManager.info("ChromeDriver iniciado com sucesso");
+        ScreenshotPipeline.getInstance().startScenario();
+
+        if (FailedScenarios.isRerun()) {
+            // Nova tentativa de um cenário que falhou na execução anterior
+            Allure.getLifecycle().updateTestCase(result -> result.getLabels().add(ResultsUtils.createTagLabel(RERUN_TAG)));
+        }
+
+        // O navegador só é iniciado no primeiro uso (WebDriverFactory.getDriver), nunca em cenários @api/@db
+        if (WebDriverFactory.getInstance().isBrowserless()) {
+            LoggerManager.info("Cenário sem navegador: " + scenario.getName());
+        }
 
         // Adicionar anexos ao relatório Allure usando separador de arquivo do sistema
         addAllureAttachments();
     }
 
     private void addAllureAttachments() throws IOException {
-        File image = new File(pathFile.getPath() + FILE_SEPARATOR + "wesley.png");
-        ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(FileUtils.readFileToByteArray(image));
-        Allure.addAttachment("Alguma Captura de Tela", byteArrayInputStream);
+        // Arquivos estáticos: copiados para allure-results só no primeiro cenário, depois apenas referenciados
+        AttachmentStore store = AttachmentStore.getInstance();
+        store.attachFile("Alguma Captura de Tela", "image/png", "png", staticFile("wesley.png"));
+        store.attachFile("Algum vídeo", "video/mp4", "mp4", staticFile("google.mp4"));
+    }
 
-        File video = new File(pathFile.getPath() + FILE_SEPARATOR + "google.mp4");
-        Allure.addAttachment("Algum vídeo", "video/mp4", Files.asByteSource(video).openStream(), "mp4");
+    private Path staticFile(String name) {
+        return new File(pathFile.getPath() + FILE_SEPARATOR + name).toPath();
     }
 
     @After
     public void depoisDoCenario(Scenario scenario) {
+        // Null se o cenário não usou o navegador
+        driver = WebDriverFactory.getInstance().getCurrentDriver();
+
         if (scenario.isFailed() && driver != null) {
             captureFailureScreenshot(scenario);
         }
 
-        // Let the factory handle quitting the driver
-        WebDriverFactory.getInstance().quitDriver();
+        if (ConfigManager.getBoolean("browser.metrics.enabled", false) && driver != null) {
+            attachPageMetrics();
+        }
+
+        if (driver != null) {
+            PageStateCache.forDriver(driver).logStats();
+            ElementLookupStats.logAndReset();
+        }
+
+        // Aguardar a gravação dos screenshots do cenário
+        ScreenshotPipeline.getInstance().flush();
+        AttachmentStore.getInstance().logStats();
+
+        // O driver é encerrado, ou mantido aquecido para o próximo cenário (driver.reuse / rerun.failed)
+        if (driver != null) {
+            PageStateCache.forDriver(driver).invalidate("fim do cenário");
+        }
+        WebDriverFactory.getInstance().releaseDriver();
+
+        // Só cenários acima de profiling.threshold.millis pagam o dump e o resumo da gravação
+        ScenarioProfiler.getInstance().finish(janelaDoPerfil, scenario.getName());
+
+        DurationStore.record(ScenarioKey.fromId(scenario.getId()),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicioDoCenario), scenario.getStatus());
+    }
+
+    private void attachPageMetrics() {
+        // Métricas da última página, para comparar os perfis leve e completo
+        try {
+            Map<String, Object> metrics = new SeleniumActions(driver).getPageMetrics();
+            Allure.addAttachment("Métricas da página (" + WebDriverFactory.getInstance().getProfile() + ")",
+                    "text/plain", metrics.toString());
+        } catch (WebDriverException e) {
+            LoggerManager.warn("Não foi possível coletar métricas da página: " + e.getMessage());
+        }
     }
 
     private void captureFailureScreenshot(Scenario scenario) {
+        if (!(driver instanceof TakesScreenshot)) {
+            return;
+        }
         // Capturar screenshot em caso de falha
         byte[] screenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
-        Allure.addAttachment("Screenshot de Falha", "image/png", new ByteArrayInputStream(screenshot), "png");
+        ScreenshotPipeline.getInstance().attach("Screenshot de Falha", screenshot);
     }
 }
\ No newline at end of file
@@ -0,0 +1,243 @@
+package br.com.selenium.api.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Streaming assertions on a JSON document, for response bodies too large to load as a String or a tree.
+ * Expectations are registered first and checked in a single pass of a pull parser, so memory stays
+ * constant whatever the body size. The first failed predicate stops the parsing and throws an
+ * AssertionError naming the concrete path, e.g. $[4711].email.
+ * Subtrees no expectation can reach are skipped without reading their names or values.
+ *
+ * Paths: $ is the root, .name a field, [3] an array index, [*] and .* any element or field.
+ *
+ * Example:
+ * JsonStreamAssert.of(response.asInputStream())
+ *     .count("$[*]", 10000)
+ *     .every("$[*].email", "contains @", email -> email.contains("@"))
+ *     .equals("$[0].name", "Test User")
+ *     .verify();
+ */
+public class JsonStreamAssert {
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private final InputStream in;
+    private final List<Expectation> expectations = new ArrayList<>();
+
+    private JsonStreamAssert(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * @param in The JSON document; it is closed by verify()
+     */
+    public static JsonStreamAssert of(InputStream in) {
+        return new JsonStreamAssert(in);
+    }
+
+    /**
+     * Exactly this many values match the path. Fails as soon as one too many is seen.
+     */
+    public JsonStreamAssert count(String path, long expected) {
+        Expectation expectation = new Expectation(path, "count " + expected);
+        expectation.maxMatches = expected;
+        expectation.minMatches = expected;
+        expectations.add(expectation);
+        return this;
+    }
+
+    /**
+     * At least one value matches the path.
+     */
+    public JsonStreamAssert exists(String path) {
+        Expectation expectation = new Expectation(path, "exists");
+        expectation.minMatches = 1;
+        expectations.add(expectation);
+        return this;
+    }
+
+    /**
+     * At least one value matches the path and every one of them equals the expected text
+     * (numbers and booleans as written in the document, null for JSON null).
+     */
+    public JsonStreamAssert equals(String path, String expected) {
+        Expectation expectation = new Expectation(path, "equals " + expected);
+        expectation.minMatches = 1;
+        expectation.predicate = value -> Objects.equals(value, expected);
+        expectations.add(expectation);
+        return this;
+    }
+
+    /**
+     * Every scalar matching the path satisfies the predicate (null for JSON null).
+     * Objects and arrays at the path fail the expectation.
+     * @param description Describes the predicate in the failure message
+     */
+    public JsonStreamAssert every(String path, String description, Predicate<String> predicate) {
+        Expectation expectation = new Expectation(path, description);
+        expectation.predicate = predicate;
+        expectations.add(expectation);
+        return this;
+    }
+
+    /**
+     * Parse the document once, checking every expectation.
+     * @return The number of values read, for logs
+     * @throws AssertionError On the first failed expectation
+     */
+    public long verify() {
+        List<Level> levels = new ArrayList<>();
+        int depth = 0;
+        long values = 0;
+        try (JsonParser parser = FACTORY.createParser(in)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.FIELD_NAME) {
+                    levels.get(depth - 1).field = parser.getCurrentName();
+                    continue;
+                }
+                if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+                    depth--;
+                    continue;
+                }
+                if (depth > 0 && levels.get(depth - 1).array) {
+                    levels.get(depth - 1).index++;
+                }
+                values++;
+                boolean descend = false;
+                for (Expectation expectation : expectations) {
+                    if (expectation.matches(levels, depth)) {
+                        expectation.check(parser, token, levels, depth);
+                    } else if (!descend && token.isStructStart() && expectation.reachesBelow(levels, depth)) {
+                        descend = true;
+                    }
+                }
+                if (token.isStructStart()) {
+                    if (descend) {
+                        if (levels.size() == depth) {
+                            levels.add(new Level());
+                        }
+                        levels.get(depth++).reset(token == JsonToken.START_ARRAY);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new AssertionError("Invalid JSON: " + e.getMessage(), e);
+        }
+        for (Expectation expectation : expectations) {
+            if (expectation.matched < expectation.minMatches) {
+                throw new AssertionError(String.format("%s: %s failed, %d value(s) matched",
+                        expectation.path, expectation.description, expectation.matched));
+            }
+        }
+        return values;
+    }
+
+    private static String pathOf(List<Level> levels, int depth) {
+        StringBuilder path = new StringBuilder("$");
+        for (int i = 0; i < depth; i++) {
+            Level level = levels.get(i);
+            path.append(level.array ? "[" + level.index + "]" : "." + level.field);
+        }
+        return path.toString();
+    }
+
+    /**
+     * Position inside one open object or array.
+     */
+    private static class Level {
+        private boolean array;
+        private int index;
+        private String field;
+
+        private void reset(boolean array) {
+            this.array = array;
+            this.index = -1;
+            this.field = null;
+        }
+    }
+
+    private static class Expectation {
+        private final String path;
+        private final String description;
+        private final List<String> segments;
+        private long matched;
+        private long minMatches;
+        private long maxMatches = Long.MAX_VALUE;
+        private Predicate<String> predicate;
+
+        private Expectation(String path, String description) {
+            this.path = path;
+            this.description = description;
+            this.segments = parse(path);
+        }
+
+        /**
+         * "$[*].users[0].name" becomes ["*", "users", "0", "name"].
+         */
+        private static List<String> parse(String path) {
+            if (!path.startsWith("$")) {
+                throw new IllegalArgumentException("JSON path must start with $: " + path);
+            }
+            List<String> segments = new ArrayList<>();
+            for (String segment : path.substring(1).split("\\.|(?=\\[)")) {
+                if (segment.startsWith("[") && segment.endsWith("]")) {
+                    segments.add(segment.substring(1, segment.length() - 1));
+                } else if (!segment.isEmpty()) {
+                    segments.add(segment);
+                }
+            }
+            return segments;
+        }
+
+        private boolean matches(List<Level> levels, int depth) {
+            return depth == segments.size() && prefixMatches(levels, depth);
+        }
+
+        private boolean reachesBelow(List<Level> levels, int depth) {
+            return depth < segments.size() && prefixMatches(levels, depth);
+        }
+
+        private boolean prefixMatches(List<Level> levels, int depth) {
+            for (int i = 0; i < depth; i++) {
+                String segment = segments.get(i);
+                Level level = levels.get(i);
+                if (!"*".equals(segment)
+                        && !(level.array ? segment.equals(String.valueOf(level.index)) : segment.equals(level.field))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void check(JsonParser parser, JsonToken token, List<Level> levels, int depth) throws IOException {
+            if (++matched > maxMatches) {
+                throw new AssertionError(String.format("%s: %s failed, more values at %s",
+                        path, description, pathOf(levels, depth)));
+            }
+            if (predicate == null) {
+                return;
+            }
+            if (token.isStructStart()) {
+                throw new AssertionError(String.format("%s: %s failed, %s is an %s",
+                        path, description, pathOf(levels, depth), token == JsonToken.START_ARRAY ? "array" : "object"));
+            }
+            String value = token == JsonToken.VALUE_NULL ? null : parser.getText();
+            if (!predicate.test(value)) {
+                throw new AssertionError(String.format("%s: %s failed, %s is %s",
+                        path, description, pathOf(levels, depth), value));
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package br.com.selenium.api.load;
+
+import br.com.selenium.api.annotation.Logger;
+import br.com.selenium.api.utils.LoggerManager;
+import okhttp3.ConnectionPool;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * HTTP load generator for performance smoke tests.
+ * Closed loop (default): a fixed number of workers each send their next request as soon as
+ * the previous one completes. Open loop (rate(n)): requests are started at a fixed rate whatever
+ * the response times, and latency is measured from the planned start, so a slow server is not
+ * hidden by the generator slowing down (coordinated omission).
+ * Connections are kept alive and pooled, one per worker.
+ *
+ * Example:
+ * LoadResult result = new LoadGenerator("GET", url).requests(10000).concurrency(64).run();
+ */
+@Logger(level = "INFO")
+public class LoadGenerator {
+    private static final MediaType JSON = MediaType.parse("application/json; charset=UTF-8");
+
+    private final String method;
+    private final String url;
+    private int requests = 1;
+    private int concurrency = 1;
+    private double ratePerSecond;
+    private String body;
+
+    public LoadGenerator(String method, String url) {
+        this.method = method.toUpperCase();
+        this.url = url;
+    }
+
+    public LoadGenerator requests(int requests) {
+        this.requests = requests;
+        return this;
+    }
+
+    /**
+     * Number of workers, and of pooled connections.
+     */
+    public LoadGenerator concurrency(int concurrency) {
+        this.concurrency = Math.max(1, concurrency);
+        return this;
+    }
+
+    /**
+     * Switch to open loop at the given request rate.
+     */
+    public LoadGenerator rate(double ratePerSecond) {
+        this.ratePerSecond = ratePerSecond;
+        return this;
+    }
+
+    /**
+     * JSON body sent with POST, PUT and PATCH requests.
+     */
+    public LoadGenerator body(String body) {
+        this.body = body;
+        return this;
+    }
+
+    /**
+     * Send every request and wait for the responses.
+     * @return Throughput, latency percentiles and errors
+     */
+    public LoadResult run() {
+        OkHttpClient client = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(concurrency, 1, TimeUnit.MINUTES))
+                .retryOnConnectionFailure(false)
+                .build();
+        LoadResult result = new LoadResult(method + " " + url, ratePerSecond > 0 ? "open loop" : "closed loop", concurrency);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "load-generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> running = ratePerSecond > 0 ? openLoop(client, workers, result, start) : closedLoop(client, workers, result);
+            for (Future<?> future : running) {
+                future.get();
+            }
+            result.finish(System.nanoTime() - start, client.connectionPool().connectionCount());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.finish(System.nanoTime() - start, 0);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Load generator failed", e.getCause());
+        } finally {
+            workers.shutdownNow();
+            client.connectionPool().evictAll();
+        }
+        LoggerManager.info(result.summary());
+        return result;
+    }
+
+    private List<Future<?>> closedLoop(OkHttpClient client, ExecutorService workers, LoadResult result) {
+        AtomicInteger remaining = new AtomicInteger(requests);
+        List<Future<?>> running = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            running.add(workers.submit(() -> {
+                while (remaining.getAndDecrement() > 0) {
+                    send(client, result, System.nanoTime());
+                }
+            }));
+        }
+        return running;
+    }
+
+    private List<Future<?>> openLoop(OkHttpClient client, ExecutorService workers, LoadResult result, long start) {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        List<Future<?>> running = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            long planned = start + i * intervalNanos;
+            long wait = planned - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            // Queued requests keep their planned start: waiting for a free worker counts as latency
+            running.add(workers.submit(() -> send(client, result, planned)));
+        }
+        return running;
+    }
+
+    private void send(OkHttpClient client, LoadResult result, long plannedStart) {
+        RequestBody requestBody = requiresBody(method)
+                ? RequestBody.create(JSON, body == null ? "" : body) : null;
+        Request request = new Request.Builder().url(url).method(method, requestBody).build();
+        try (Response response = client.newCall(request).execute()) {
+            // Read the whole body so the connection goes back to the pool
+            response.body().bytes();
+            result.record(System.nanoTime() - plannedStart, response.code());
+        } catch (IOException e) {
+            result.recordError(System.nanoTime() - plannedStart, e);
+        }
+    }
+
+    /**
+     * OkHttp rejects these methods without a body, so they get an empty one when none was set.
+     */
+    private static boolean requiresBody(String method) {
+        switch (method) {
+            case "POST":
+            case "PUT":
+            case "PATCH":
+            case "PROPPATCH":
+            case "REPORT":
+                return true;
+            default:
+                return false;
+        }
+    }
+}
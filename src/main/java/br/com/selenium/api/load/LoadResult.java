@@ -0,0 +1,108 @@
+package br.com.selenium.api.load;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outcome of a LoadGenerator run: latency histogram, throughput and errors.
+ * Responses with a status of 400 or more and I/O failures count as errors.
+ */
+public class LoadResult {
+    private final String target;
+    private final String mode;
+    private final int concurrency;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final Map<String, AtomicLong> outcomes = new ConcurrentHashMap<>();
+    private final AtomicLong errors = new AtomicLong();
+    private long durationNanos;
+    private int pooledConnections;
+
+    LoadResult(String target, String mode, int concurrency) {
+        this.target = target;
+        this.mode = mode;
+        this.concurrency = concurrency;
+    }
+
+    void record(long latencyNanos, int status) {
+        latencies.record(latencyNanos);
+        outcomes.computeIfAbsent(String.valueOf(status), key -> new AtomicLong()).incrementAndGet();
+        if (status >= 400) {
+            errors.incrementAndGet();
+        }
+    }
+
+    void recordError(long latencyNanos, Exception e) {
+        latencies.record(latencyNanos);
+        outcomes.computeIfAbsent(e.getClass().getSimpleName(), key -> new AtomicLong()).incrementAndGet();
+        errors.incrementAndGet();
+    }
+
+    void finish(long durationNanos, int pooledConnections) {
+        this.durationNanos = durationNanos;
+        this.pooledConnections = pooledConnections;
+    }
+
+    public long getRequests() {
+        return latencies.getCount();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    public double getErrorRate() {
+        return getRequests() == 0 ? 0 : 100.0 * getErrors() / getRequests();
+    }
+
+    /**
+     * @return Completed requests per second
+     */
+    public double getThroughput() {
+        return durationNanos == 0 ? 0 : getRequests() * (double) TimeUnit.SECONDS.toNanos(1) / durationNanos;
+    }
+
+    /**
+     * @param percentile The percentile, e.g. 99.0
+     * @return The latency at that percentile, in milliseconds
+     */
+    public double percentileMillis(double percentile) {
+        return latencies.percentileMicros(percentile) / 1000.0;
+    }
+
+    public double getMaxMillis() {
+        return latencies.getMaxMicros() / 1000.0;
+    }
+
+    /**
+     * @return One line for the logs
+     */
+    public String summary() {
+        return String.format("Load %s: %d request(s) in %d ms, %.0f req/s, p50 %.2f ms, p95 %.2f ms, p99 %.2f ms, max %.2f ms, %d error(s)",
+                target, getRequests(), TimeUnit.NANOSECONDS.toMillis(durationNanos), getThroughput(),
+                percentileMillis(50), percentileMillis(95), percentileMillis(99), getMaxMillis(), getErrors());
+    }
+
+    /**
+     * @return A plain text table for the report
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Target        %s%n", target));
+        report.append(String.format("Mode          %s, concurrency %d%n", mode, concurrency));
+        report.append(String.format("Requests      %d in %d ms%n", getRequests(), TimeUnit.NANOSECONDS.toMillis(durationNanos)));
+        report.append(String.format("Throughput    %.1f req/s%n", getThroughput()));
+        report.append(String.format("Latency p50   %.3f ms%n", percentileMillis(50)));
+        report.append(String.format("Latency p95   %.3f ms%n", percentileMillis(95)));
+        report.append(String.format("Latency p99   %.3f ms%n", percentileMillis(99)));
+        report.append(String.format("Latency max   %.3f ms%n", getMaxMillis()));
+        report.append(String.format("Errors        %d (%.2f%%)%n", getErrors(), getErrorRate()));
+        report.append(String.format("Connections   %d pooled at the end%n", pooledConnections));
+        for (Map.Entry<String, AtomicLong> outcome : new TreeMap<>(outcomes).entrySet()) {
+            report.append(String.format("  %-12s%d%n", outcome.getKey(), outcome.getValue().get()));
+        }
+        return report.toString();
+    }
+}
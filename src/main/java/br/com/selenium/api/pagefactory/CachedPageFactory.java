@@ -0,0 +1,25 @@
+package br.com.selenium.api.pagefactory;
+
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Replacement for PageFactory.initElements with cached, stale-safe element lookups.
+ * Repeated use of the same element does not query the DOM again, and elements that
+ * became stale after a navigation are located again transparently.
+ * The field scan is done once per page object class (see PageObjectMetadata).
+ */
+public class CachedPageFactory {
+
+    private CachedPageFactory() {
+        // Utility class
+    }
+
+    /**
+     * Initialize the @FindBy fields of a page object.
+     * @param driver The WebDriver used to locate elements
+     * @param page The page object to initialize
+     */
+    public static void initElements(WebDriver driver, Object page) {
+        PageObjectMetadata.forClass(page.getClass()).bind(driver, page);
+    }
+}
@@ -0,0 +1,75 @@
+package br.com.selenium.api.pagefactory;
+
+import br.com.selenium.api.actions.PageStateCache;
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.pagefactory.ElementLocator;
+
+import java.util.List;
+
+/**
+ * ElementLocator that memoizes its element between calls, keyed on the page version.
+ * Within the same page version the cached element is returned without a round trip;
+ * a new version (navigation, page-changing action, DOM mutation) forces a new lookup, so
+ * a re-rendered page never gets an element from the previous render. If a cached element
+ * still goes stale, StaleSafeElementHandler invalidates it and locates it again.
+ */
+public class CachingElementLocator implements ElementLocator {
+    private final SearchContext searchContext;
+    private final By by;
+    private final PageStateCache pageCache;
+    private final ElementLookupStats stats;
+
+    private WebElement cachedElement;
+    private long cachedElementVersion;
+    private List<WebElement> cachedElements;
+    private long cachedElementsVersion;
+
+    public CachingElementLocator(SearchContext searchContext, By by, PageStateCache pageCache, ElementLookupStats stats) {
+        this.searchContext = searchContext;
+        this.by = by;
+        this.pageCache = pageCache;
+        this.stats = stats;
+    }
+
+    @Override
+    public synchronized WebElement findElement() {
+        long version = pageCache.getVersion();
+        if (cachedElement != null && cachedElementVersion == version) {
+            stats.hit();
+            return cachedElement;
+        }
+        stats.lookup();
+        cachedElement = searchContext.findElement(by);
+        cachedElementVersion = version;
+        return cachedElement;
+    }
+
+    @Override
+    public synchronized List<WebElement> findElements() {
+        long version = pageCache.getVersion();
+        if (cachedElements != null && cachedElementsVersion == version) {
+            stats.hit();
+            return cachedElements;
+        }
+        stats.lookup();
+        cachedElements = searchContext.findElements(by);
+        cachedElementsVersion = version;
+        return cachedElements;
+    }
+
+    /**
+     * Forget the cached element after it was found to be stale.
+     */
+    public synchronized void invalidate() {
+        stats.staleRecovery();
+        cachedElement = null;
+        cachedElements = null;
+    }
+
+    @Override
+    public String toString() {
+        return "CachingElementLocator '" + by + "'";
+    }
+}
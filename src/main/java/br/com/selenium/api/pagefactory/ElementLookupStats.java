@@ -0,0 +1,85 @@
+package br.com.selenium.api.pagefactory;
+
+import br.com.selenium.api.annotation.Logger;
+import br.com.selenium.api.utils.LoggerManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Element lookup counters for one page object class.
+ * lookups: findElement(s) round trips; hits: served from cache for the same page version;
+ * staleRecoveries: cached element was stale and had to be located again.
+ * The counters are shared with the live locators, so they are reset in place.
+ */
+@Logger(level = "INFO")
+public class ElementLookupStats {
+    private static final Map<String, ElementLookupStats> STATS = new ConcurrentHashMap<>();
+
+    private final String pageObject;
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleRecoveries = new AtomicLong();
+
+    private ElementLookupStats(String pageObject) {
+        this.pageObject = pageObject;
+    }
+
+    /**
+     * Get the counters of a page object class.
+     * @param pageObject The page object name
+     * @return The shared counters for that page object
+     */
+    public static ElementLookupStats forPageObject(String pageObject) {
+        return STATS.computeIfAbsent(pageObject, ElementLookupStats::new);
+    }
+
+    /**
+     * Log the counters of every page object and reset them.
+     */
+    public static void logAndReset() {
+        for (ElementLookupStats stats : STATS.values()) {
+            long lookups = stats.lookups.getAndSet(0);
+            long hits = stats.hits.getAndSet(0);
+            long staleRecoveries = stats.staleRecoveries.getAndSet(0);
+            if (lookups + hits > 0) {
+                LoggerManager.info(format(stats.pageObject, lookups, hits, staleRecoveries));
+            }
+        }
+    }
+
+    void lookup() {
+        lookups.incrementAndGet();
+    }
+
+    void hit() {
+        hits.incrementAndGet();
+    }
+
+    void staleRecovery() {
+        staleRecoveries.incrementAndGet();
+    }
+
+    public long getLookups() {
+        return lookups.get();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getStaleRecoveries() {
+        return staleRecoveries.get();
+    }
+
+    private static String format(String pageObject, long lookups, long hits, long staleRecoveries) {
+        return String.format("Element lookups for %s: %d lookups, %d hits, %d stale recoveries",
+                pageObject, lookups, hits, staleRecoveries);
+    }
+
+    @Override
+    public String toString() {
+        return format(pageObject, lookups.get(), hits.get(), staleRecoveries.get());
+    }
+}
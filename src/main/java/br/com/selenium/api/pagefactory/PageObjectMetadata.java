@@ -0,0 +1,125 @@
+package br.com.selenium.api.pagefactory;
+
+import br.com.selenium.api.actions.PageStateCache;
+import br.com.selenium.api.annotation.Logger;
+import br.com.selenium.api.utils.LoggerManager;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.interactions.Locatable;
+import org.openqa.selenium.support.FindAll;
+import org.openqa.selenium.support.FindBy;
+import org.openqa.selenium.support.FindBys;
+import org.openqa.selenium.support.pagefactory.Annotations;
+import org.openqa.selenium.support.pagefactory.internal.LocatingElementListHandler;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Element fields of a page object class and their locators.
+ * Computed once per class by reflection and cached, so binding a page object to a
+ * driver only creates the element proxies and assigns the fields.
+ * Follows the PageFactory rules: every WebElement field is bound (by id or name when
+ * it has no @FindBy), List&lt;WebElement&gt; fields only when annotated.
+ */
+@Logger(level = "DEBUG")
+public class PageObjectMetadata {
+    private static final Map<Class<?>, PageObjectMetadata> CACHE = new ConcurrentHashMap<>();
+    private static final Class<?>[] ELEMENT_INTERFACES = {WebElement.class, WrapsElement.class, Locatable.class};
+
+    private static class ElementField {
+        private final Field field;
+        private final By by;
+        private final boolean list;
+
+        ElementField(Field field, By by, boolean list) {
+            this.field = field;
+            this.by = by;
+            this.list = list;
+        }
+    }
+
+    private final Class<?> pageClass;
+    private final List<ElementField> fields;
+
+    private PageObjectMetadata(Class<?> pageClass, List<ElementField> fields) {
+        this.pageClass = pageClass;
+        this.fields = fields;
+    }
+
+    /**
+     * Get the metadata of a page object class, computing it on first use.
+     * @param pageClass The page object class
+     * @return The cached metadata
+     */
+    public static PageObjectMetadata forClass(Class<?> pageClass) {
+        return CACHE.computeIfAbsent(pageClass, PageObjectMetadata::scan);
+    }
+
+    /**
+     * Assign cached, stale-safe element proxies to the element fields of a page object.
+     * @param driver The WebDriver used to locate elements
+     * @param page The page object, an instance of this metadata's class
+     */
+    public void bind(WebDriver driver, Object page) {
+        PageStateCache pageCache = PageStateCache.forDriver(driver);
+        ElementLookupStats stats = ElementLookupStats.forPageObject(pageClass.getSimpleName());
+        ClassLoader loader = pageClass.getClassLoader();
+
+        for (ElementField elementField : fields) {
+            CachingElementLocator locator = new CachingElementLocator(driver, elementField.by, pageCache, stats);
+            Object proxy = elementField.list
+                    ? Proxy.newProxyInstance(loader, new Class<?>[]{List.class}, new LocatingElementListHandler(locator))
+                    : Proxy.newProxyInstance(loader, ELEMENT_INTERFACES, new StaleSafeElementHandler(locator));
+            try {
+                elementField.field.set(page, proxy);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Could not initialize page object field " + elementField.field, e);
+            }
+        }
+    }
+
+    public int getFieldCount() {
+        return fields.size();
+    }
+
+    private static PageObjectMetadata scan(Class<?> pageClass) {
+        List<ElementField> fields = new ArrayList<>();
+        for (Class<?> type = pageClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers())) {
+                    continue;
+                }
+                boolean list = isElementList(field);
+                if (field.getType() != WebElement.class && !list) {
+                    continue;
+                }
+                field.setAccessible(true);
+                fields.add(new ElementField(field, new Annotations(field).buildBy(), list));
+            }
+        }
+        LoggerManager.debug("Page object metadata for " + pageClass.getSimpleName() + ": " + fields.size() + " element field(s)");
+        return new PageObjectMetadata(pageClass, Collections.unmodifiableList(fields));
+    }
+
+    private static boolean isElementList(Field field) {
+        if (field.getType() != List.class || !(field.getGenericType() instanceof ParameterizedType)) {
+            return false;
+        }
+        Type elementType = ((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0];
+        return elementType == WebElement.class
+                && (field.isAnnotationPresent(FindBy.class)
+                || field.isAnnotationPresent(FindBys.class)
+                || field.isAnnotationPresent(FindAll.class));
+    }
+}
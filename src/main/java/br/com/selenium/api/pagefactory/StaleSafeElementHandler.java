@@ -0,0 +1,48 @@
+package br.com.selenium.api.pagefactory;
+
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Proxy handler for page object elements.
+ * Resolves the element through a CachingElementLocator and, when the cached element is
+ * stale, locates it again and retries the call once.
+ */
+public class StaleSafeElementHandler implements InvocationHandler {
+    private final CachingElementLocator locator;
+
+    public StaleSafeElementHandler(CachingElementLocator locator) {
+        this.locator = locator;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if ("toString".equals(method.getName()) && method.getParameterCount() == 0) {
+            return "Proxy element for: " + locator;
+        }
+
+        WebElement element = locator.findElement();
+        if ("getWrappedElement".equals(method.getName())) {
+            return element;
+        }
+
+        try {
+            return method.invoke(element, args);
+        } catch (InvocationTargetException e) {
+            if (!(e.getCause() instanceof StaleElementReferenceException)) {
+                throw e.getCause();
+            }
+        }
+
+        locator.invalidate();
+        try {
+            return method.invoke(locator.findElement(), args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package br.com.selenium.api.performance;
+
+import br.com.selenium.api.annotation.Logger;
+import br.com.selenium.api.performance.PerformanceRecorder.Metric;
+import br.com.selenium.api.utils.ConfigManager;
+import br.com.selenium.api.utils.LoggerManager;
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StatusDetails;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.util.ResultsUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Performance regression gate, evaluated at the end of a run.
+ * The median of every metric recorded by PerformanceRecorder is compared with its rolling baseline,
+ * the medians of its last -Dperformance.baseline.runs runs (default 10) of the same runner in the PerformanceStore.
+ * A metric has regressed when it is slower than the baseline mean by more than the largest of
+ * -Dperformance.gate.sigma standard deviations (default 3), -Dperformance.gate.tolerance of the mean
+ * (default 0.2) and -Dperformance.gate.min.millis (default 20), so noise on fast steps is ignored.
+ * Metrics with fewer than -Dperformance.baseline.min.runs runs (default 3) are only recorded.
+ *
+ * The diff table is attached to Allure in a "Performance regression gate" result, failed when a
+ * metric regressed, and the outcome is written to target/performance-gate.properties for CI.
+ * Disable with -Dperformance.gate.enabled=false.
+ */
+@Logger(level = "INFO")
+public class PerformanceGate {
+    private static final String GATE_NAME = "Performance regression gate";
+
+    private PerformanceGate() {
+        // Utility class
+    }
+
+    /**
+     * Compare the metrics recorded since the last evaluation with their baselines, then store them.
+     * @param runName The runner, e.g. its class name; it names the run in the report and selects its baselines
+     * @return The outcome, never null
+     */
+    public static Result evaluate(String runName) {
+        Map<Metric, List<Double>> samples = PerformanceRecorder.drain(runName);
+        if (!ConfigManager.getBoolean("performance.gate.enabled", true) || samples.isEmpty()) {
+            return new Result(runName, Collections.emptyList());
+        }
+        Map<Metric, List<Double>> history;
+        try {
+            history = PerformanceStore.history(runName, ConfigManager.getInt("performance.baseline.runs", 10));
+        } catch (SQLException e) {
+            LoggerManager.warn("Could not read the performance history: " + e.getMessage());
+            history = Collections.emptyMap();
+        }
+
+        List<Comparison> comparisons = new ArrayList<>();
+        for (Map.Entry<Metric, List<Double>> metric : samples.entrySet()) {
+            comparisons.add(new Comparison(metric.getKey(), metric.getValue(),
+                    history.getOrDefault(metric.getKey(), Collections.emptyList())));
+        }
+        comparisons.sort(Comparator.comparing(Comparison::getStatus)
+                .thenComparing(Comparator.comparingDouble(Comparison::getChangePercent).reversed()));
+        Result result = new Result(runName, comparisons);
+
+        try {
+            PerformanceStore.save(UUID.randomUUID().toString(), comparisons);
+        } catch (SQLException e) {
+            LoggerManager.warn("Could not save the performance results: " + e.getMessage());
+        }
+        for (Comparison comparison : result.getRegressions()) {
+            LoggerManager.warn("Performance regression: " + comparison);
+        }
+        LoggerManager.info(result.summary());
+        publish(result);
+        return result;
+    }
+
+    private static void publish(Result result) {
+        try {
+            Path marker = Paths.get("target", "performance-gate.properties");
+            Files.createDirectories(marker.getParent());
+            Files.write(marker, String.format("status=%s%nregressions=%d%nmetrics=%d%n",
+                    result.isRegressed() ? "REGRESSED" : "OK", result.getRegressions().size(),
+                    result.getComparisons().size()).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            LoggerManager.warn("Could not write the performance gate marker: " + e.getMessage());
+        }
+
+        AllureLifecycle lifecycle = Allure.getLifecycle();
+        String uuid = UUID.randomUUID().toString();
+        lifecycle.scheduleTestCase(new TestResult()
+                .withUuid(uuid)
+                .withName(GATE_NAME + " (" + result.runName + ")")
+                .withFullName(GATE_NAME + " " + result.runName)
+                .withHistoryId(GATE_NAME + " " + result.runName)
+                .withStatus(result.isRegressed() ? Status.FAILED : Status.PASSED)
+                .withStatusDetails(new StatusDetails().withMessage(result.summary()))
+                .withLabels(ResultsUtils.createFeatureLabel(GATE_NAME), ResultsUtils.createTagLabel("performance"),
+                        ResultsUtils.createHostLabel()));
+        lifecycle.startTestCase(uuid);
+        lifecycle.addAttachment("Performance diff", "text/csv", "csv", result.table().getBytes(StandardCharsets.UTF_8));
+        lifecycle.stopTestCase(uuid);
+        lifecycle.writeTestCase(uuid);
+    }
+
+    /**
+     * Outcome of one evaluation.
+     */
+    public static class Result {
+        private final String runName;
+        private final List<Comparison> comparisons;
+
+        Result(String runName, List<Comparison> comparisons) {
+            this.runName = runName;
+            this.comparisons = comparisons;
+        }
+
+        public List<Comparison> getComparisons() {
+            return comparisons;
+        }
+
+        public List<Comparison> getRegressions() {
+            List<Comparison> regressions = new ArrayList<>();
+            for (Comparison comparison : comparisons) {
+                if (comparison.getStatus() == Comparison.Status.REGRESSED) {
+                    regressions.add(comparison);
+                }
+            }
+            return regressions;
+        }
+
+        public boolean isRegressed() {
+            return !getRegressions().isEmpty();
+        }
+
+        /**
+         * @return Counts per status, then one line per regression
+         */
+        public String summary() {
+            int[] counts = new int[Comparison.Status.values().length];
+            for (Comparison comparison : comparisons) {
+                counts[comparison.getStatus().ordinal()]++;
+            }
+            StringBuilder summary = new StringBuilder("Performance of " + runName + ":");
+            for (Comparison.Status status : Comparison.Status.values()) {
+                summary.append(' ').append(counts[status.ordinal()]).append(' ').append(status.name().toLowerCase());
+                summary.append(status.ordinal() < counts.length - 1 ? "," : "");
+            }
+            for (Comparison regression : getRegressions()) {
+                summary.append(System.lineSeparator()).append(regression);
+            }
+            return summary.toString();
+        }
+
+        /**
+         * @return The diff table as CSV, which Allure shows as a table
+         */
+        public String table() {
+            StringBuilder table = new StringBuilder("status,kind,name,baseline ms,stddev ms,runs,current ms,samples,change %\n");
+            for (Comparison comparison : comparisons) {
+                table.append(String.format(Locale.ROOT, "%s,%s,\"%s\",%.2f,%.2f,%d,%.2f,%d,%+.1f%n",
+                        comparison.getStatus(), comparison.getKind(), comparison.getName().replace("\"", "\"\""),
+                        comparison.baselineMillis, comparison.stddevMillis, comparison.baselineRuns,
+                        comparison.currentMillis, comparison.samples, comparison.getChangePercent()));
+            }
+            return table.toString();
+        }
+    }
+
+    /**
+     * One metric of the run against its baseline.
+     */
+    public static class Comparison {
+        /**
+         * Declared in report order.
+         */
+        public enum Status { REGRESSED, IMPROVED, NEW, OK }
+
+        private final Metric metric;
+        private final int samples;
+        private final double currentMillis;
+        private final int baselineRuns;
+        private final double baselineMillis;
+        private final double stddevMillis;
+        private final Status status;
+
+        Comparison(Metric metric, List<Double> samples, List<Double> baseline) {
+            this.metric = metric;
+            this.samples = samples.size();
+            this.currentMillis = median(samples);
+            this.baselineRuns = baseline.size();
+            double mean = 0;
+            for (double value : baseline) {
+                mean += value / baseline.size();
+            }
+            double variance = 0;
+            for (double value : baseline) {
+                variance += (value - mean) * (value - mean) / Math.max(1, baseline.size() - 1);
+            }
+            this.baselineMillis = mean;
+            this.stddevMillis = Math.sqrt(variance);
+
+            double allowed = Math.max(ConfigManager.getDouble("performance.gate.sigma", 3) * stddevMillis,
+                    Math.max(ConfigManager.getDouble("performance.gate.tolerance", 0.2) * mean,
+                            ConfigManager.getDouble("performance.gate.min.millis", 20)));
+            if (baselineRuns < ConfigManager.getInt("performance.baseline.min.runs", 3)) {
+                status = Status.NEW;
+            } else if (currentMillis > mean + allowed) {
+                status = Status.REGRESSED;
+            } else if (currentMillis < mean - allowed) {
+                status = Status.IMPROVED;
+            } else {
+                status = Status.OK;
+            }
+        }
+
+        private static double median(List<Double> samples) {
+            List<Double> sorted = new ArrayList<>(samples);
+            Collections.sort(sorted);
+            int middle = sorted.size() / 2;
+            return sorted.size() % 2 == 1 ? sorted.get(middle) : (sorted.get(middle - 1) + sorted.get(middle)) / 2;
+        }
+
+        public String getRunner() {
+            return metric.runner;
+        }
+
+        public String getKind() {
+            return metric.kind.name();
+        }
+
+        public String getName() {
+            return metric.name;
+        }
+
+        public int getSamples() {
+            return samples;
+        }
+
+        public double getCurrentMillis() {
+            return currentMillis;
+        }
+
+        public double getBaselineMillis() {
+            return baselineMillis;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * @return How much slower than the baseline, in percent; 0 without a baseline
+         */
+        public double getChangePercent() {
+            return baselineRuns == 0 || baselineMillis == 0 ? 0 : 100 * (currentMillis - baselineMillis) / baselineMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s %s %s: %.2f ms, baseline %.2f ± %.2f ms over %d run(s) (%+.1f%%)",
+                    status, getKind().toLowerCase(), getName(), currentMillis, baselineMillis, stddevMillis,
+                    baselineRuns, getChangePercent());
+        }
+    }
+}
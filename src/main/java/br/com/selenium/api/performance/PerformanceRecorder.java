@@ -0,0 +1,204 @@
+package br.com.selenium.api.performance;
+
+import br.com.selenium.api.scheduling.ScenarioKey;
+import gherkin.formatter.Formatter;
+import gherkin.formatter.Reporter;
+import gherkin.formatter.model.Background;
+import gherkin.formatter.model.Examples;
+import gherkin.formatter.model.Feature;
+import gherkin.formatter.model.Match;
+import gherkin.formatter.model.Result;
+import gherkin.formatter.model.Scenario;
+import gherkin.formatter.model.ScenarioOutline;
+import gherkin.formatter.model.Step;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cucumber plugin that records the durations of passed steps and scenarios for the PerformanceGate.
+ * Steps are keyed by their step definition (e.g. ApiSteps.i_request_user(int)), so every
+ * row of an outline adds a sample to the same step; scenarios by their ScenarioKey.
+ * Other measurements, e.g. load test latencies, are added with recordBenchmark.
+ * Add it to @CucumberOptions: plugin = {"br.com.selenium.api.performance.PerformanceRecorder"}.
+ * Samples are shared by every instance (one per ParallelCucumber worker) until the gate drains them
+ * at the end of a runner, which names the runner they belong to.
+ */
+public class PerformanceRecorder implements Formatter, Reporter {
+    private static final Map<Metric, List<Double>> SAMPLES = new ConcurrentHashMap<>();
+
+    private final Deque<Step> steps = new ArrayDeque<>();
+    private String stepDefinition;
+    private String scenarioKey;
+    private long scenarioStart;
+    private boolean scenarioPassed;
+
+    /**
+     * Record a measurement of this run, e.g. a load test percentile.
+     * @param name A stable name, e.g. "GET /api/users/1 p95"
+     * @param millis The measured value, in milliseconds; higher is worse
+     */
+    public static void recordBenchmark(String name, double millis) {
+        record(Metric.Kind.BENCHMARK, name, millis);
+    }
+
+    static void record(Metric.Kind kind, String name, double millis) {
+        SAMPLES.computeIfAbsent(new Metric(null, kind, name), key -> Collections.synchronizedList(new ArrayList<>())).add(millis);
+    }
+
+    /**
+     * Take the samples recorded since the last call.
+     * @param runner The runner that recorded them, e.g. "ApiTestRunner"
+     */
+    static Map<Metric, List<Double>> drain(String runner) {
+        Map<Metric, List<Double>> drained = new HashMap<>();
+        for (Metric metric : new ArrayList<>(SAMPLES.keySet())) {
+            List<Double> samples = SAMPLES.remove(metric);
+            if (samples != null) {
+                synchronized (samples) {
+                    drained.put(new Metric(runner, metric.kind, metric.name), new ArrayList<>(samples));
+                }
+            }
+        }
+        return drained;
+    }
+
+    @Override
+    public void startOfScenarioLifeCycle(Scenario scenario) {
+        steps.clear();
+        scenarioKey = ScenarioKey.fromId(scenario.getId());
+        scenarioStart = System.nanoTime();
+        scenarioPassed = true;
+    }
+
+    @Override
+    public void step(Step step) {
+        steps.add(step);
+    }
+
+    @Override
+    public void match(Match match) {
+        stepDefinition = match.getLocation();
+    }
+
+    @Override
+    public void result(Result result) {
+        Step step = steps.poll();
+        if (!Result.PASSED.equals(result.getStatus())) {
+            scenarioPassed = false;
+        } else if (result.getDuration() != null) {
+            String name = stepDefinition != null ? stepDefinition : step == null ? "unknown step" : step.getKeyword() + step.getName();
+            record(Metric.Kind.STEP, name.trim(), result.getDuration() / 1_000_000.0);
+        }
+        stepDefinition = null;
+    }
+
+    @Override
+    public void before(Match match, Result result) {
+        if (!Result.PASSED.equals(result.getStatus())) {
+            scenarioPassed = false;
+        }
+    }
+
+    @Override
+    public void after(Match match, Result result) {
+        before(match, result);
+    }
+
+    @Override
+    public void endOfScenarioLifeCycle(Scenario scenario) {
+        // Failed scenarios stop early: their duration says nothing about speed
+        if (scenarioPassed && scenarioKey != null) {
+            record(Metric.Kind.SCENARIO, scenarioKey, (System.nanoTime() - scenarioStart) / (double) TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        scenarioKey = null;
+    }
+
+    @Override
+    public void syntaxError(String state, String event, List<String> legalEvents, String uri, Integer line) {
+    }
+
+    @Override
+    public void uri(String uri) {
+    }
+
+    @Override
+    public void feature(Feature feature) {
+    }
+
+    @Override
+    public void scenarioOutline(ScenarioOutline scenarioOutline) {
+    }
+
+    @Override
+    public void examples(Examples examples) {
+    }
+
+    @Override
+    public void background(Background background) {
+    }
+
+    @Override
+    public void scenario(Scenario scenario) {
+    }
+
+    @Override
+    public void done() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void eof() {
+    }
+
+    @Override
+    public void embedding(String mimeType, byte[] data) {
+    }
+
+    @Override
+    public void write(String text) {
+    }
+
+    /**
+     * What was measured by a runner: a step definition, a scenario or a benchmark.
+     * The runner is null until the samples are drained.
+     */
+    static class Metric {
+        enum Kind { STEP, SCENARIO, BENCHMARK }
+
+        final String runner;
+        final Kind kind;
+        final String name;
+
+        Metric(String runner, Kind kind, String name) {
+            this.runner = runner;
+            this.kind = kind;
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Metric)) {
+                return false;
+            }
+            Metric metric = (Metric) other;
+            return Objects.equals(runner, metric.runner) && kind == metric.kind && name.equals(metric.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(runner, kind, name);
+        }
+    }
+}
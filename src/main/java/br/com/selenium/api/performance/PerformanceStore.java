@@ -0,0 +1,111 @@
+package br.com.selenium.api.performance;
+
+import br.com.selenium.api.database.DatabaseManager;
+import br.com.selenium.api.performance.PerformanceRecorder.Metric;
+import br.com.selenium.api.utils.ConfigManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-run performance results, kept in a file-backed H2 database (.test-history/performance)
+ * through DatabaseManager: one row per run and metric, with the median of the run's samples.
+ * Every runner has its own baselines, so CucumberRunner and ApiTestRunner never mix their timings.
+ * AUTO_SERVER lets several forked JVMs share the file, as in DurationStore.
+ * Use another database with -Dperformance.store.url, e.g. an in-memory one in unit tests.
+ */
+public class PerformanceStore {
+    private static final String DEFAULT_URL = "jdbc:h2:file:./.test-history/performance;AUTO_SERVER=TRUE";
+    private static final String TABLE = "PERFORMANCE_RESULTS";
+    private static final Set<String> INITIALIZED = new HashSet<>();
+
+    private PerformanceStore() {
+        // Utility class
+    }
+
+    /**
+     * Medians of the last runs of every metric of a runner, newest first.
+     * @param runner The runner, e.g. "ApiTestRunner"
+     * @param runs How many runs to read per metric
+     */
+    static Map<Metric, List<Double>> history(String runner, int runs) throws SQLException {
+        Map<Metric, List<Double>> history = new HashMap<>();
+        try (Connection connection = connection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT KIND, NAME, MEDIAN_MS FROM ("
+                             + " SELECT KIND, NAME, MEDIAN_MS, ID,"
+                             + " ROW_NUMBER() OVER (PARTITION BY KIND, NAME ORDER BY ID DESC) AS RN"
+                             + " FROM " + TABLE + " WHERE RUNNER = ?) WHERE RN <= ? ORDER BY ID DESC")) {
+            statement.setString(1, runner);
+            statement.setInt(2, runs);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    Metric metric = new Metric(runner, Metric.Kind.valueOf(rows.getString("KIND")), rows.getString("NAME"));
+                    history.computeIfAbsent(metric, key -> new ArrayList<>()).add(rows.getDouble("MEDIAN_MS"));
+                }
+            }
+        }
+        return history;
+    }
+
+    /**
+     * Save the results of a run.
+     * @param runId The run, e.g. a UUID
+     * @param comparisons The metrics of the run
+     */
+    static void save(String runId, List<PerformanceGate.Comparison> comparisons) throws SQLException {
+        try (Connection connection = connection();
+             PreparedStatement statement = connection.prepareStatement("INSERT INTO " + TABLE
+                     + " (RUN_ID, RUNNER, KIND, NAME, SAMPLES, MEDIAN_MS, STATUS) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (PerformanceGate.Comparison comparison : comparisons) {
+                statement.setString(1, runId);
+                statement.setString(2, comparison.getRunner());
+                statement.setString(3, comparison.getKind());
+                statement.setString(4, comparison.getName());
+                statement.setInt(5, comparison.getSamples());
+                statement.setDouble(6, comparison.getCurrentMillis());
+                statement.setString(7, comparison.getStatus().name());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private static Connection connection() throws SQLException {
+        String url = ConfigManager.get("performance.store.url", DEFAULT_URL);
+        Connection connection = DatabaseManager.getConnection(url, "sa", "", 2, 30000);
+        try {
+            initialize(url, connection);
+            return connection;
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    private static synchronized void initialize(String url, Connection connection) throws SQLException {
+        if (INITIALIZED.contains(url)) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " (ID BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                    + "RUN_ID VARCHAR(64) NOT NULL, RUNNER VARCHAR(200), KIND VARCHAR(20) NOT NULL, "
+                    + "NAME VARCHAR(1000) NOT NULL, SAMPLES INT NOT NULL, MEDIAN_MS DOUBLE NOT NULL, STATUS VARCHAR(20), "
+                    + "RECORDED_AT TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+            // Stores created before baselines were per runner: their rows have no runner and are no longer read
+            statement.execute("ALTER TABLE " + TABLE + " ADD COLUMN IF NOT EXISTS RUNNER VARCHAR(200)");
+            statement.execute("DROP INDEX IF EXISTS IDX_PERFORMANCE_RESULTS_METRIC");
+            statement.execute("CREATE INDEX IF NOT EXISTS IDX_PERFORMANCE_RESULTS_RUNNER ON " + TABLE + " (RUNNER, KIND, NAME)");
+        }
+        INITIALIZED.add(url);
+    }
+}
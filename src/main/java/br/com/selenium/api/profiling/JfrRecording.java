@@ -0,0 +1,72 @@
+package br.com.selenium.api.profiling;
+
+import br.com.selenium.api.annotation.Logger;
+import br.com.selenium.api.utils.LoggerManager;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+
+/**
+ * The continuous JFR recording of ScenarioProfiler.
+ * Only loaded once jdk.jfr is known to exist, so JVMs without JFR never see these types.
+ */
+@Logger(level = "INFO")
+class JfrRecording implements AutoCloseable {
+    private static final String DIAGNOSTIC_COMMAND = "com.sun.management:type=DiagnosticCommand";
+
+    private final Recording recording;
+
+    private JfrRecording(Recording recording) {
+        this.recording = recording;
+    }
+
+    /**
+     * Start a recording kept on disk for at most maxAge.
+     * @param settings A JFR configuration name, "default" (about 1% overhead) or "profile"
+     */
+    static JfrRecording start(String settings, Duration maxAge) throws IOException, ParseException {
+        Recording recording = new Recording(Configuration.getConfiguration(settings));
+        recording.setName("scenario-profiler");
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.start();
+        return new JfrRecording(recording);
+    }
+
+    /**
+     * Write the last part of the recording to a file.
+     * Recording.dump always writes everything kept so far, so the JFR.dump diagnostic command,
+     * which takes a maxage, is used first.
+     * @param file Must not exist yet
+     * @param window How far back to go
+     */
+    void dump(Path file, Duration window) throws IOException {
+        try {
+            ManagementFactory.getPlatformMBeanServer().invoke(new ObjectName(DIAGNOSTIC_COMMAND), "jfrDump",
+                    new Object[]{new String[]{"name=" + recording.getId(), "filename=" + file.toAbsolutePath(),
+                            "maxage=" + Math.max(1, window.getSeconds() + 1) + "s"}},
+                    new String[]{String[].class.getName()});
+        } catch (JMException e) {
+            LoggerManager.warn("JFR.dump diagnostic command failed, dumping the whole recording: " + e.getMessage());
+        }
+        if (!Files.exists(file)) {
+            recording.dump(file);
+        }
+    }
+
+    /**
+     * Stop the recording and delete its data.
+     */
+    @Override
+    public void close() {
+        recording.close();
+    }
+}
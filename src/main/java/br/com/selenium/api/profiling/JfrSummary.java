@@ -0,0 +1,196 @@
+package br.com.selenium.api.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+/**
+ * Text summary of a JFR dump, restricted to the time window of one scenario:
+ * the hot methods (top frames of execution samples, scenario thread and others apart),
+ * the allocation sites, the GC pauses and the slow socket and file reads and writes,
+ * which show where a scenario waited on the browser, the API or the disk.
+ */
+class JfrSummary {
+    private final Instant begin;
+    private final Instant end;
+    private final long threadId;
+    private final int top;
+
+    private final Map<String, Long> scenarioSamples = new HashMap<>();
+    private final Map<String, Long> otherSamples = new HashMap<>();
+    private final Map<String, Long> allocations = new HashMap<>();
+    private final Map<String, Long> socketWaits = new HashMap<>();
+    private final Map<String, Long> fileWaits = new HashMap<>();
+    private final List<String> gcs = new ArrayList<>();
+    private long gcCount;
+    private Duration gcPauses = Duration.ZERO;
+    private Duration longestGcPause = Duration.ZERO;
+
+    private JfrSummary(Instant begin, Instant end, long threadId, int top) {
+        this.begin = begin;
+        this.end = end;
+        this.threadId = threadId;
+        this.top = top;
+    }
+
+    /**
+     * Read the events of a dump that overlap a window.
+     * @param threadId The Java thread id of the scenario
+     * @param top How many entries per section
+     */
+    static JfrSummary of(Path file, Instant begin, Instant end, long threadId, int top) throws IOException {
+        JfrSummary summary = new JfrSummary(begin, end, threadId, top);
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                summary.add(recording.readEvent());
+            }
+        }
+        return summary;
+    }
+
+    private void add(RecordedEvent event) {
+        if (event.getEndTime().isBefore(begin) || event.getStartTime().isAfter(end)) {
+            return;
+        }
+        switch (event.getEventType().getName()) {
+            case "jdk.ExecutionSample":
+                String method = frame(event.getStackTrace());
+                if (method != null) {
+                    increment(isScenarioThread(event.getThread("sampledThread")) ? scenarioSamples : otherSamples, method, 1);
+                }
+                break;
+            case "jdk.ObjectAllocationSample":
+                addAllocation(event, event.getLong("weight"));
+                break;
+            case "jdk.ObjectAllocationInNewTLAB":
+                addAllocation(event, event.getLong("tlabSize"));
+                break;
+            case "jdk.ObjectAllocationOutsideTLAB":
+                addAllocation(event, event.getLong("allocationSize"));
+                break;
+            case "jdk.GarbageCollection":
+                Duration pause = event.getDuration("sumOfPauses");
+                gcCount++;
+                gcPauses = gcPauses.plus(pause);
+                if (pause.compareTo(longestGcPause) > 0) {
+                    longestGcPause = pause;
+                }
+                gcs.add(String.format(Locale.ROOT, "%s (%s): %.1f ms", event.getString("name"),
+                        event.getString("cause"), millis(pause)));
+                break;
+            case "jdk.SocketRead":
+            case "jdk.SocketWrite":
+                String host = event.getString("host");
+                increment(socketWaits, (host == null || host.isEmpty() ? event.getString("address") : host) + ":"
+                        + event.getInt("port") + direction(event), event.getDuration().toNanos());
+                break;
+            case "jdk.FileRead":
+            case "jdk.FileWrite":
+                // No path: standard input or a pipe, e.g. Surefire waiting for commands, not disk I/O
+                if (event.getString("path") != null) {
+                    increment(fileWaits, event.getString("path") + direction(event), event.getDuration().toNanos());
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void addAllocation(RecordedEvent event, long bytes) {
+        String site = frame(event.getStackTrace());
+        String type = event.getClass("objectClass") == null ? "?" : event.getClass("objectClass").getName();
+        increment(allocations, type + " at " + (site == null ? "?" : site), bytes);
+    }
+
+    private static String direction(RecordedEvent event) {
+        return event.getEventType().getName().endsWith("Read") ? " read" : " write";
+    }
+
+    private boolean isScenarioThread(RecordedThread thread) {
+        return thread != null && thread.getJavaThreadId() == threadId;
+    }
+
+    private static String frame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return null;
+        }
+        RecordedFrame frame = stackTrace.getFrames().get(0);
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + (frame.getLineNumber() > 0 ? ":" + frame.getLineNumber() : "");
+    }
+
+    private static void increment(Map<String, Long> counts, String key, long amount) {
+        counts.merge(key, amount, Long::sum);
+    }
+
+    private static double millis(Duration duration) {
+        return duration.toNanos() / 1_000_000.0;
+    }
+
+    long getScenarioSamples() {
+        return scenarioSamples.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    long getAllocatedBytes() {
+        return allocations.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * @param scenarioName The header of the summary
+     * @param millis How long the scenario took
+     */
+    String format(String scenarioName, long millis) {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.ROOT, "Scenario: %s%nDuration: %d ms (%s to %s)%n", scenarioName, millis, begin, end));
+
+        section(text, "Hot methods, scenario thread (samples)", scenarioSamples, count -> count + " (" + percent(count, scenarioSamples) + ")");
+        section(text, "Hot methods, other threads (samples)", otherSamples, count -> count + " (" + percent(count, otherSamples) + ")");
+        section(text, "Allocation sites (estimated bytes)", allocations, JfrSummary::bytes);
+
+        text.append(String.format(Locale.ROOT, "%nGC pauses: %d collection(s), %.1f ms in total, longest %.1f ms%n",
+                gcCount, millis(gcPauses), millis(longestGcPause)));
+        for (String gc : gcs.subList(0, Math.min(top, gcs.size()))) {
+            text.append("  ").append(gc).append(System.lineSeparator());
+        }
+
+        section(text, "Socket waits over 20 ms, all threads (ms)", socketWaits, nanos -> String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0));
+        section(text, "File waits over 20 ms, all threads (ms)", fileWaits, nanos -> String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0));
+        return text.toString();
+    }
+
+    private void section(StringBuilder text, String title, Map<String, Long> values,
+                         LongFunction<String> formatter) {
+        text.append(System.lineSeparator()).append(title).append(':').append(System.lineSeparator());
+        if (values.isEmpty()) {
+            text.append("  none").append(System.lineSeparator());
+            return;
+        }
+        values.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(top)
+                .forEach(entry -> text.append(String.format("  %12s  %s%n", formatter.apply(entry.getValue()), entry.getKey())));
+    }
+
+    private static String percent(long count, Map<String, Long> values) {
+        long total = values.values().stream().mapToLong(Long::longValue).sum();
+        return String.format(Locale.ROOT, "%.0f%%", 100.0 * count / total);
+    }
+
+    private static String bytes(long bytes) {
+        return bytes >= 1 << 20 ? String.format(Locale.ROOT, "%.1f MB", bytes / (double) (1 << 20))
+                : String.format(Locale.ROOT, "%.1f KB", bytes / 1024.0);
+    }
+}
@@ -0,0 +1,135 @@
+package br.com.selenium.api.profiling;
+
+import br.com.selenium.api.annotation.Logger;
+import br.com.selenium.api.attachments.AttachmentStore;
+import br.com.selenium.api.utils.ConfigManager;
+import br.com.selenium.api.utils.LoggerManager;
+import io.qameta.allure.Allure;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Profiles slow scenarios with Java Flight Recorder.
+ * One low-overhead recording (JFR "default" settings, -Dprofiling.settings) runs for the whole test run.
+ * When a scenario takes -Dprofiling.threshold.millis or more (default 10000), the part of the recording
+ * covering it is dumped and attached to its Allure result, with a text summary of the hot methods,
+ * allocation sites, GC pauses and socket and file waits (see JfrSummary). Faster scenarios cost nothing more.
+ * Needs a JVM with JFR (JDK 11+, or 8u272+); elsewhere it does nothing. Disable with -Dprofiling.enabled=false.
+ *
+ * Example (Hooks):
+ * Window window = ScenarioProfiler.getInstance().start();
+ * ...
+ * ScenarioProfiler.getInstance().finish(window, scenario.getName());
+ */
+@Logger(level = "INFO")
+public class ScenarioProfiler {
+    private static ScenarioProfiler instance;
+
+    private final long thresholdMillis = ConfigManager.getLong("profiling.threshold.millis", 10000);
+    private final int top = ConfigManager.getInt("profiling.summary.top", 10);
+    private final JfrRecording recording;
+
+    private ScenarioProfiler() {
+        recording = ConfigManager.getBoolean("profiling.enabled", true) ? startRecording() : null;
+    }
+
+    /**
+     * Gets the profiler, starting the recording on first use.
+     * @return The ScenarioProfiler instance
+     */
+    public static synchronized ScenarioProfiler getInstance() {
+        if (instance == null) {
+            instance = new ScenarioProfiler();
+        }
+        return instance;
+    }
+
+    private static JfrRecording startRecording() {
+        try {
+            Class.forName("jdk.jfr.FlightRecorder");
+        } catch (ClassNotFoundException e) {
+            LoggerManager.warn("Java Flight Recorder not available on Java " + System.getProperty("java.version")
+                    + ", slow scenarios are not profiled");
+            return null;
+        }
+        try {
+            Duration maxAge = Duration.ofSeconds(ConfigManager.getLong("profiling.max.seconds", 600));
+            JfrRecording recording = JfrRecording.start(ConfigManager.get("profiling.settings", "default"), maxAge);
+            LoggerManager.info("JFR recording started, scenarios slower than "
+                    + ConfigManager.getLong("profiling.threshold.millis", 10000) + " ms are profiled");
+            return recording;
+        } catch (Exception e) {
+            LoggerManager.warn("Could not start the JFR recording: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return recording != null;
+    }
+
+    /**
+     * Mark the start of a scenario, on the thread that runs it.
+     */
+    public Window start() {
+        return new Window(Instant.now(), System.nanoTime(), Thread.currentThread().getId());
+    }
+
+    /**
+     * End of a scenario: dump, summarize and attach the recording if it was slow.
+     * Call it from an @After hook, while the scenario is still the current Allure test case.
+     * @param window The value returned by start() for this scenario
+     * @param scenarioName For the logs
+     * @return true if the scenario was profiled
+     */
+    public boolean finish(Window window, String scenarioName) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - window.startNanos);
+        if (recording == null || millis < thresholdMillis) {
+            return false;
+        }
+        Path file = Paths.get(System.getProperty("java.io.tmpdir"), "scenario-" + UUID.randomUUID() + ".jfr");
+        try {
+            long start = System.nanoTime();
+            // One extra second so the dump covers the scenario start despite clock granularity
+            recording.dump(file, Duration.ofMillis(millis + 1000));
+            String summary = JfrSummary.of(file, window.start, Instant.now(), window.threadId, top)
+                    .format(scenarioName, millis);
+            Allure.addAttachment("JFR profile summary", "text/plain", summary);
+            AttachmentStore.getInstance().attachFile("JFR recording", "application/octet-stream", "jfr", file);
+            LoggerManager.info(String.format("Slow scenario profiled (%d ms): %s, %d KB in %d ms", millis, scenarioName,
+                    Files.size(file) / 1024, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+            return true;
+        } catch (IOException e) {
+            LoggerManager.warn("Could not profile scenario " + scenarioName + ": " + e.getMessage());
+            return false;
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                LoggerManager.warn("Could not delete " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Start time and thread of a running scenario.
+     */
+    public static class Window {
+        private final Instant start;
+        private final long startNanos;
+        private final long threadId;
+
+        Window(Instant start, long startNanos, long threadId) {
+            this.start = start;
+            this.startNanos = startNanos;
+            this.threadId = threadId;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package br.com.selenium.api.reporting;
+
+import io.qameta.allure.cucumberjvm.AllureCucumberJvm;
+
+/**
+ * AllureCucumberJvm plugin that writes results through BufferedResultsWriter.
+ * Use it in place of io.qameta.allure.cucumberjvm.AllureCucumberJvm in @CucumberOptions.
+ */
+public class BufferedAllureCucumberJvm extends AllureCucumberJvm {
+
+    static {
+        // AllureCucumberJvm reads the lifecycle in its constructor
+        BufferedResultsWriter.install();
+    }
+}
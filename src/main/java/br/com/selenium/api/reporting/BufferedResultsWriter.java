@@ -0,0 +1,352 @@
+package br.com.selenium.api.reporting;
+
+import br.com.selenium.api.annotation.Logger;
+import br.com.selenium.api.utils.ConfigManager;
+import br.com.selenium.api.utils.LoggerManager;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.AllureResultsWriteException;
+import io.qameta.allure.AllureResultsWriter;
+import io.qameta.allure.AllureUtils;
+import io.qameta.allure.model.Allure2ModelJackson;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.model.TestResultContainer;
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * AllureResultsWriter that buffers results in memory and publishes them in batches.
+ * Every file is written under a hidden temporary name and renamed into place, so a reader
+ * polling the results directory (allure-docker-service) never sees a partial file.
+ * Batches are written by a background thread when -Dresults.writer.batch.size files
+ * (default 50) or -Dresults.writer.buffer.bytes (default 1 MB) are pending, every
+ * -Dresults.writer.flush.millis (default 1000) and at JVM exit.
+ * With -Dresults.writer.gzip.threshold.bytes=N attachments of at least N bytes are stored
+ * gzipped with a .gz suffix, but only while a ResultsUploader or ShardMerger is listening:
+ * they decompress them, the Allure report itself cannot read them.
+ * ResultsListeners (e.g. the ResultsUploader, enabled with -Dresults.upload.url) are told
+ * about every published file. With -Dresults.sharded=true the writer uses the worker's
+ * shard directory and ShardMerger merges it into the results directory at the end.
+ * Installed by BufferedAllureCucumberJvm; disable with -Dresults.writer.buffered=false.
+ */
+@Logger(level = "DEBUG")
+public class BufferedResultsWriter implements AllureResultsWriter {
+    public static final String GZIP_SUFFIX = ".gz";
+    private static final String TEMP_PREFIX = ".";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static BufferedResultsWriter instance;
+    private static boolean installed;
+
+    private static class PendingFile {
+        private final String name;
+        private final byte[] content;
+
+        PendingFile(String name, byte[] content) {
+            this.name = name;
+            this.content = content;
+        }
+    }
+
+    private final Path directory;
+    private final int batchSize;
+    private final long bufferBytes;
+    private final long gzipThreshold;
+    private final ObjectMapper mapper = Allure2ModelJackson.createMapper();
+    private final Object flushLock = new Object();
+    private final ScheduledExecutorService flusher;
+    private final List<ResultsListener> listeners = new CopyOnWriteArrayList<>();
+    private List<PendingFile> pending = new ArrayList<>();
+    private long pendingBytes;
+    private long filesWritten;
+    private long batchesWritten;
+    private long gzipped;
+
+    /**
+     * @param directory The results directory
+     * @param batchSize Pending files that trigger a flush
+     * @param bufferBytes Pending bytes that trigger a flush; larger attachments are written right away
+     * @param gzipThreshold Minimum size of gzipped attachments, 0 to never gzip
+     * @param flushMillis Period of the background flush, 0 to flush only on demand
+     */
+    public BufferedResultsWriter(Path directory, int batchSize, long bufferBytes, long gzipThreshold, long flushMillis) {
+        this.directory = directory;
+        this.batchSize = Math.max(1, batchSize);
+        this.bufferBytes = Math.max(1, bufferBytes);
+        this.gzipThreshold = gzipThreshold;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "allure-results-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (flushMillis > 0) {
+            flusher.scheduleWithFixedDelay(this::flushQuietly, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Gets the writer for the results directory of this worker (see ResultsDirectory).
+     * @return The BufferedResultsWriter instance
+     */
+    public static synchronized BufferedResultsWriter getInstance() {
+        if (instance == null) {
+            instance = new BufferedResultsWriter(
+                    ResultsDirectory.current(),
+                    ConfigManager.getInt("results.writer.batch.size", 50),
+                    ConfigManager.getLong("results.writer.buffer.bytes", 1024 * 1024),
+                    ConfigManager.getLong("results.writer.gzip.threshold.bytes", 0),
+                    ConfigManager.getLong("results.writer.flush.millis", 1000));
+            ResultsUploader uploader = ResultsUploader.fromConfig();
+            if (uploader != null) {
+                instance.addListener(uploader);
+            }
+            if (ResultsDirectory.isSharded()) {
+                instance.addListener(new ShardMerger(ResultsDirectory.current(), ResultsDirectory.results()));
+            }
+            if (instance.gzipThreshold > 0 && !instance.hasGzipConsumer()) {
+                LoggerManager.warn("results.writer.gzip.threshold.bytes ignored: only the uploader "
+                        + "and the shard merge read gzipped attachments");
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(instance::close, "allure-results-writer-shutdown"));
+        }
+        return instance;
+    }
+
+    /**
+     * Make the Allure lifecycle write through the buffered writer.
+     * Must run before anything calls Allure.getLifecycle(), which is why the reporter
+     * plugins call it from their static initializer. Safe to call more than once.
+     */
+    public static synchronized void install() {
+        if (installed || !ConfigManager.getBoolean("results.writer.buffered", true)) {
+            return;
+        }
+        Allure.setLifecycle(new AllureLifecycle(getInstance()));
+        installed = true;
+        LoggerManager.debug("Allure results are written through BufferedResultsWriter");
+    }
+
+    /**
+     * Tell the installed writer's listeners about a file written to the results directory
+     * by someone else (e.g. AttachmentStore). Does nothing if the writer is not installed.
+     * @param file The published file
+     */
+    public static void notifyPublished(Path file) {
+        BufferedResultsWriter writer;
+        synchronized (BufferedResultsWriter.class) {
+            writer = installed ? instance : null;
+        }
+        if (writer != null) {
+            writer.firePublished(file);
+        }
+    }
+
+    public void addListener(ResultsListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void write(TestResult testResult) {
+        String name = Objects.isNull(testResult.getUuid())
+                ? AllureUtils.generateTestResultName()
+                : AllureUtils.generateTestResultName(testResult.getUuid());
+        enqueue(name, serialize(testResult));
+    }
+
+    @Override
+    public void write(TestResultContainer testResultContainer) {
+        String name = Objects.isNull(testResultContainer.getUuid())
+                ? AllureUtils.generateTestResultContainerName()
+                : AllureUtils.generateTestResultContainerName(testResultContainer.getUuid());
+        enqueue(name, serialize(testResultContainer));
+    }
+
+    @Override
+    public void write(String source, InputStream attachment) {
+        String name = source;
+        byte[] content;
+        try {
+            content = IOUtils.toByteArray(attachment);
+            if (gzipThreshold > 0 && content.length >= gzipThreshold && hasGzipConsumer()) {
+                content = gzip(content);
+                name = source + GZIP_SUFFIX;
+                synchronized (this) {
+                    gzipped++;
+                }
+            }
+        } catch (IOException e) {
+            throw new AllureResultsWriteException("Could not write Allure attachment", e);
+        }
+
+        if (content.length >= bufferBytes) {
+            // Too big to buffer: publish what is pending, then this file, in order
+            flush();
+            synchronized (flushLock) {
+                publish(new PendingFile(name, content));
+            }
+            return;
+        }
+        enqueue(name, content);
+    }
+
+    /**
+     * The results reference attachments by their plain name: only the uploader and the shard
+     * merge, which decompress .gz files, may receive gzipped attachments.
+     */
+    private boolean hasGzipConsumer() {
+        for (ResultsListener listener : listeners) {
+            if (listener instanceof ResultsUploader || listener instanceof ShardMerger) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Publish every pending file now.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            List<PendingFile> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new ArrayList<>();
+                pendingBytes = 0;
+            }
+            long start = System.nanoTime();
+            for (PendingFile file : batch) {
+                try {
+                    publish(file);
+                } catch (AllureResultsWriteException e) {
+                    // Keep publishing the rest of the batch
+                    LoggerManager.error(e.getMessage() + ": " + e.getCause());
+                }
+            }
+            synchronized (this) {
+                batchesWritten++;
+            }
+            LoggerManager.trace(String.format("Published %d result file(s) in %d ms",
+                    batch.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        }
+    }
+
+    /**
+     * Flush pending files and stop the background flush.
+     */
+    public void close() {
+        flusher.shutdown();
+        flushQuietly();
+        for (ResultsListener listener : listeners) {
+            listener.close();
+        }
+        LoggerManager.debug(String.format("Allure results: %d file(s) in %d batch(es), %d gzipped",
+                filesWritten, batchesWritten, gzipped));
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    private void enqueue(String name, byte[] content) {
+        boolean full;
+        synchronized (this) {
+            pending.add(new PendingFile(name, content));
+            pendingBytes += content.length;
+            full = pending.size() >= batchSize || pendingBytes >= bufferBytes;
+        }
+        if (full && !flusher.isShutdown()) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (AllureResultsWriteException e) {
+            LoggerManager.error("Failed to write Allure results: " + e.getMessage());
+        }
+    }
+
+    private void publish(PendingFile file) {
+        String name = fileName(file.name);
+        Path target = directory.resolve(name);
+        Path temp = directory.resolve(TEMP_PREFIX + name + TEMP_SUFFIX);
+        try {
+            Files.createDirectories(directory);
+            Files.write(temp, file.content);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new AllureResultsWriteException("Could not write Allure result " + file.name, e);
+        }
+        synchronized (this) {
+            filesWritten++;
+        }
+        firePublished(target);
+    }
+
+    private void firePublished(Path file) {
+        for (ResultsListener listener : listeners) {
+            try {
+                listener.published(file);
+            } catch (RuntimeException e) {
+                LoggerManager.error("Results listener failed for " + file.getFileName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * File name usable on this file system. Cucumber result uuids carry the scenario name,
+     * which may not be representable with the JVM file name encoding (e.g. accents under a
+     * POSIX locale); such names are reduced to ASCII.
+     */
+    static String fileName(String name) {
+        try {
+            Paths.get(name);
+            return name;
+        } catch (InvalidPathException e) {
+            String ascii = Normalizer.normalize(name, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+            return ascii.replaceAll("[^\\x20-\\x7E]", "_");
+        }
+    }
+
+    private byte[] serialize(Object result) {
+        try {
+            return mapper.writeValueAsBytes(result);
+        } catch (IOException e) {
+            throw new AllureResultsWriteException("Could not write Allure test result", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content);
+        }
+        return out.toByteArray();
+    }
+}
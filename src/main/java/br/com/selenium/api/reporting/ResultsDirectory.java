@@ -0,0 +1,53 @@
+package br.com.selenium.api.reporting;
+
+import br.com.selenium.api.utils.ConfigManager;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Resolves where Allure results are written.
+ * Without sharding everything goes to -Dallure.results.directory (default allure-results).
+ * With -Dresults.sharded=true every worker (surefire fork or container) writes to its own
+ * shard directory, -Dresults.shards.directory/&lt;worker id&gt; (default target/allure-shards),
+ * which ShardMerger merges into the results directory when the worker ends.
+ * The worker id is -Dresults.worker.id, or the surefire fork number.
+ */
+public class ResultsDirectory {
+
+    private ResultsDirectory() {
+        // Utility class
+    }
+
+    /**
+     * @return The final results directory, read by allure-docker-service
+     */
+    public static Path results() {
+        return Paths.get(ConfigManager.get("allure.results.directory", "allure-results"));
+    }
+
+    /**
+     * @return True if this worker writes to its own shard directory
+     */
+    public static boolean isSharded() {
+        return ConfigManager.getBoolean("results.sharded", false);
+    }
+
+    /**
+     * @return The id of this worker, used as shard directory name
+     */
+    public static String workerId() {
+        String forkNumber = ConfigManager.get("surefire.fork.number", "1");
+        return ConfigManager.get("results.worker.id", forkNumber.isEmpty() ? "1" : forkNumber).replaceAll("[^A-Za-z0-9_.-]", "_");
+    }
+
+    /**
+     * @return The directory this worker writes to: its shard directory, or the results directory
+     */
+    public static Path current() {
+        if (!isSharded()) {
+            return results();
+        }
+        return Paths.get(ConfigManager.get("results.shards.directory", "target/allure-shards")).resolve(workerId());
+    }
+}
@@ -0,0 +1,20 @@
+package br.com.selenium.api.reporting;
+
+import java.nio.file.Path;
+
+/**
+ * Notified by BufferedResultsWriter about published result files.
+ */
+public interface ResultsListener {
+
+    /**
+     * Called after a file has been renamed into the results directory.
+     * @param file The published file
+     */
+    void published(Path file);
+
+    /**
+     * Called once, after the writer published its last file.
+     */
+    void close();
+}
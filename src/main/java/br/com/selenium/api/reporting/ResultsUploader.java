@@ -0,0 +1,251 @@
+package br.com.selenium.api.reporting;
+
+import br.com.selenium.api.annotation.Logger;
+import br.com.selenium.api.utils.ConfigManager;
+import br.com.selenium.api.utils.LoggerManager;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Pushes result files to the allure-docker-service send-results API while the tests run.
+ * Files published by BufferedResultsWriter are queued and sent in batches of
+ * -Dresults.upload.batch.size files (default 20), at least every
+ * -Dresults.upload.interval.millis (default 2000) and at the end of the run. Every file
+ * is sent once; failed batches are retried -Dresults.upload.retries times (default 3)
+ * with exponential backoff. Gzipped attachments are sent decompressed, and with
+ * -Dresults.upload.gzip=true the request body itself is gzipped (Content-Encoding),
+ * for services behind a proxy that accepts it.
+ *
+ * Enable with -Dresults.upload.url=http://localhost:5050 (or RESULTS_UPLOAD_URL);
+ * -Dresults.upload.project selects the project (default "default").
+ */
+@Logger(level = "INFO")
+public class ResultsUploader implements ResultsListener {
+    private static final String DEFAULT_PATH = "/allure-docker-service/send-results";
+
+    private final URL endpoint;
+    private final int batchSize;
+    private final int retries;
+    private final long backoffMillis;
+    private final boolean gzip;
+    private final LinkedBlockingQueue<Path> queue = new LinkedBlockingQueue<>();
+    private final Set<String> sent = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService sender;
+    private long filesSent;
+    private long batchesSent;
+    private long failedBatches;
+
+    /**
+     * @param baseUrl The allure-docker-service base URL, e.g. http://localhost:5050
+     * @param project The Allure project id
+     * @param batchSize Files per request
+     * @param retries Retries of a failed request
+     * @param backoffMillis Delay before the first retry, doubled on every retry
+     * @param intervalMillis Period of the background upload, 0 to upload only when a batch is full
+     * @param gzip Whether to gzip the request body
+     */
+    public ResultsUploader(String baseUrl, String project, int batchSize, int retries, long backoffMillis,
+                           long intervalMillis, boolean gzip) throws IOException {
+        String path = ConfigManager.get("results.upload.path", DEFAULT_PATH);
+        this.endpoint = new URL(baseUrl.replaceAll("/+$", "") + path + "?project_id=" + URLEncoder.encode(project, "UTF-8"));
+        this.batchSize = Math.max(1, batchSize);
+        this.retries = Math.max(0, retries);
+        this.backoffMillis = backoffMillis;
+        this.gzip = gzip;
+        this.sender = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "allure-results-uploader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (intervalMillis > 0) {
+            sender.scheduleWithFixedDelay(this::drain, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Create the uploader configured for the run.
+     * @return The uploader, or null when -Dresults.upload.url is not set
+     */
+    public static ResultsUploader fromConfig() {
+        String url = ConfigManager.get("results.upload.url", "");
+        if (url.isEmpty()) {
+            return null;
+        }
+        try {
+            ResultsUploader uploader = new ResultsUploader(url,
+                    ConfigManager.get("results.upload.project", "default"),
+                    ConfigManager.getInt("results.upload.batch.size", 20),
+                    ConfigManager.getInt("results.upload.retries", 3),
+                    ConfigManager.getLong("results.upload.backoff.millis", 500),
+                    ConfigManager.getLong("results.upload.interval.millis", 2000),
+                    ConfigManager.getBoolean("results.upload.gzip", false));
+            LoggerManager.info("Uploading results to " + uploader.endpoint);
+            return uploader;
+        } catch (IOException e) {
+            LoggerManager.error("Invalid results upload URL: " + url + " (" + e.getMessage() + ")");
+            return null;
+        }
+    }
+
+    @Override
+    public void published(Path file) {
+        if (!sent.add(file.getFileName().toString())) {
+            return;
+        }
+        queue.add(file);
+        if (queue.size() >= batchSize && !sender.isShutdown()) {
+            sender.execute(this::drain);
+        }
+    }
+
+    /**
+     * Send everything still queued and stop the background upload.
+     */
+    @Override
+    public void close() {
+        sender.shutdown();
+        try {
+            sender.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+        LoggerManager.info(String.format("Uploaded %d result file(s) in %d batch(es), %d failed batch(es)",
+                filesSent, batchesSent, failedBatches));
+    }
+
+    /**
+     * Send every queued file, in batches.
+     */
+    public synchronized void drain() {
+        List<Path> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            send(batch);
+            batch.clear();
+        }
+    }
+
+    private void send(List<Path> batch) {
+        byte[] body;
+        try {
+            body = payload(batch);
+        } catch (IOException e) {
+            LoggerManager.error("Could not read results for upload: " + e.getMessage());
+            failedBatches++;
+            return;
+        }
+
+        long delay = backoffMillis;
+        for (int attempt = 0; attempt <= retries; attempt++) {
+            try {
+                int status = post(body);
+                if (status < 300) {
+                    filesSent += batch.size();
+                    batchesSent++;
+                    return;
+                }
+                if (status < 500) {
+                    // Rejected by the service: retrying the same payload will not help
+                    LoggerManager.error("Results upload rejected with HTTP " + status);
+                    break;
+                }
+                LoggerManager.warn("Results upload failed with HTTP " + status + " (attempt " + (attempt + 1) + ")");
+            } catch (IOException e) {
+                LoggerManager.warn("Results upload failed: " + e.getMessage() + " (attempt " + (attempt + 1) + ")");
+            }
+            if (attempt < retries && !sleep(delay)) {
+                break;
+            }
+            delay *= 2;
+        }
+        failedBatches++;
+    }
+
+    /**
+     * Build the send-results JSON body: {"results": [{"file_name", "content_base64"}]}.
+     */
+    private static byte[] payload(List<Path> batch) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator json = new JsonFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("results");
+            for (Path file : batch) {
+                String name = file.getFileName().toString();
+                byte[] content;
+                if (name.endsWith(BufferedResultsWriter.GZIP_SUFFIX)) {
+                    name = name.substring(0, name.length() - BufferedResultsWriter.GZIP_SUFFIX.length());
+                    try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+                        content = IOUtils.toByteArray(in);
+                    }
+                } else {
+                    content = Files.readAllBytes(file);
+                }
+                json.writeStartObject();
+                json.writeStringField("file_name", name);
+                json.writeFieldName("content_base64");
+                json.writeBinary(content);
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        return out.toByteArray();
+    }
+
+    private int post(byte[] body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) endpoint.openConnection();
+        try {
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setConnectTimeout(10_000);
+            connection.setReadTimeout(60_000);
+            connection.setRequestProperty("Content-Type", "application/json");
+            if (gzip) {
+                connection.setRequestProperty("Content-Encoding", "gzip");
+            }
+            try (OutputStream out = gzip ? new GZIPOutputStream(connection.getOutputStream()) : connection.getOutputStream()) {
+                out.write(body);
+            }
+            int status = connection.getResponseCode();
+            InputStream response = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            if (response != null) {
+                response.close();
+            }
+            return status;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package br.com.selenium.api.reporting;
+
+import br.com.selenium.api.annotation.Logger;
+import br.com.selenium.api.attachments.AttachmentStore;
+import br.com.selenium.api.utils.LoggerManager;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Merges worker shard directories into the final results directory, one file at a time.
+ * Attachments are moved (a rename on the same file system) unless an identical attachment
+ * is already there; content-addressed attachments are matched by name, others by a
+ * streaming SHA-256 recorded in the .attachment-index file of the results directory.
+ * Attachments whose name is taken by different content are renamed, and result files
+ * referencing renamed or deduplicated attachments are rewritten token by token.
+ * Gzipped files are decompressed on the way. A lock file serializes concurrent merges.
+ *
+ * Runs automatically when a sharded worker ends; can also be run by hand:
+ * java -cp ... br.com.selenium.api.reporting.ShardMerger allure-results target/allure-shards/1 ...
+ */
+@Logger(level = "INFO")
+public class ShardMerger implements ResultsListener {
+    private static final String INDEX_FILE = ".attachment-index";
+    private static final String LOCK_FILE = ".merge.lock";
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("[0-9a-f]{64}-attachment\\..+");
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final Path shard;
+    private final Path target;
+
+    public ShardMerger(Path shard, Path target) {
+        this.shard = shard;
+        this.target = target;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ShardMerger <results directory> <shard directory>...");
+            System.exit(2);
+        }
+        for (int i = 1; i < args.length; i++) {
+            new ShardMerger(Paths.get(args[i]), Paths.get(args[0])).merge();
+        }
+    }
+
+    @Override
+    public void published(Path file) {
+        // Merging happens once, when the worker is done
+    }
+
+    @Override
+    public void close() {
+        try {
+            merge();
+        } catch (IOException e) {
+            LoggerManager.error("Could not merge results shard " + shard + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Merge the shard into the results directory and remove the merged files.
+     */
+    public void merge() throws IOException {
+        if (!Files.isDirectory(shard)) {
+            return;
+        }
+        Files.createDirectories(target);
+        long start = System.nanoTime();
+        try (FileChannel lockChannel = FileChannel.open(target.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // Held until every file is merged, so concurrent workers never interleave
+            FileLock lock = lockChannel.lock();
+            try {
+                Map<String, String> index = readIndex();
+                Map<String, String> renames = new HashMap<>();
+                int attachments = 0;
+                int deduplicated = 0;
+                int results = 0;
+
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(shard);
+                     BufferedWriter indexWriter = Files.newBufferedWriter(target.resolve(INDEX_FILE), StandardCharsets.UTF_8,
+                             StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    for (Path file : files) {
+                        if (isResult(file) || isHidden(file)) {
+                            continue;
+                        }
+                        attachments++;
+                        if (!mergeAttachment(file, index, renames, indexWriter)) {
+                            deduplicated++;
+                        }
+                    }
+                }
+
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(shard)) {
+                    for (Path file : files) {
+                        if (isResult(file) && !isHidden(file)) {
+                            mergeResult(file, renames);
+                            results++;
+                        }
+                    }
+                }
+
+                deleteIfEmpty(shard);
+                LoggerManager.info(String.format("Merged shard %s: %d result(s), %d attachment(s), %d deduplicated in %d ms",
+                        shard.getFileName(), results, attachments, deduplicated, (System.nanoTime() - start) / 1_000_000));
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    /**
+     * @return False if the attachment was already in the results directory
+     */
+    private boolean mergeAttachment(Path file, Map<String, String> index, Map<String, String> renames,
+                                    BufferedWriter indexWriter) throws IOException {
+        String name = plainName(file);
+        if (CONTENT_ADDRESSED.matcher(name).matches()) {
+            if (Files.exists(target.resolve(name))) {
+                Files.delete(file);
+                return false;
+            }
+            transfer(file, name);
+            return true;
+        }
+
+        String hash = hash(file);
+        String existing = index.get(hash);
+        if (existing != null && Files.exists(target.resolve(existing))) {
+            renames.put(name, existing);
+            Files.delete(file);
+            return false;
+        }
+        String merged = name;
+        if (Files.exists(target.resolve(name))) {
+            merged = shard.getFileName() + "-" + name;
+            renames.put(name, merged);
+        }
+        transfer(file, merged);
+        index.put(hash, merged);
+        indexWriter.write(hash + " " + merged);
+        indexWriter.newLine();
+        return true;
+    }
+
+    private void mergeResult(Path file, Map<String, String> renames) throws IOException {
+        String name = plainName(file);
+        if (Files.exists(target.resolve(name))) {
+            name = shard.getFileName() + "-" + name;
+        }
+        if (renames.isEmpty() && !isGzipped(file)) {
+            transfer(file, name);
+            return;
+        }
+
+        Path temp = target.resolve("." + name + ".tmp");
+        try (InputStream in = open(file);
+             OutputStream out = Files.newOutputStream(temp);
+             JsonParser parser = JSON.createParser(in);
+             JsonGenerator generator = JSON.createGenerator(out)) {
+            while (parser.nextToken() != null) {
+                if (parser.currentToken() == JsonToken.VALUE_STRING && "source".equals(parser.getCurrentName())) {
+                    String source = parser.getText();
+                    generator.writeString(renames.getOrDefault(source, source));
+                } else {
+                    generator.copyCurrentEvent(parser);
+                }
+            }
+        }
+        publish(temp, target.resolve(name));
+        Files.delete(file);
+    }
+
+    /**
+     * Move a shard file into the results directory, decompressing it if needed.
+     */
+    private void transfer(Path file, String name) throws IOException {
+        Path destination = target.resolve(name);
+        if (!isGzipped(file)) {
+            try {
+                Files.move(file, destination, StandardCopyOption.ATOMIC_MOVE);
+                return;
+            } catch (IOException e) {
+                // Different file system: copy below
+            }
+        }
+        Path temp = target.resolve("." + name + ".tmp");
+        try (InputStream in = open(file)) {
+            Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+        }
+        publish(temp, destination);
+        Files.delete(file);
+    }
+
+    private Map<String, String> readIndex() throws IOException {
+        Map<String, String> index = new HashMap<>();
+        Path file = target.resolve(INDEX_FILE);
+        if (Files.exists(file)) {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                int space = line.indexOf(' ');
+                if (space > 0) {
+                    index.put(line.substring(0, space), line.substring(space + 1));
+                }
+            }
+        }
+        return index;
+    }
+
+    private static String hash(Path file) throws IOException {
+        try (InputStream in = new DigestInputStream(open(file), MessageDigest.getInstance("SHA-256"))) {
+            byte[] buffer = new byte[64 * 1024];
+            while (in.read(buffer) >= 0) {
+                // Digest while reading
+            }
+            return AttachmentStore.toHex(((DigestInputStream) in).getMessageDigest().digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void publish(Path temp, Path destination) throws IOException {
+        try {
+            Files.move(temp, destination, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.move(temp, destination, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static InputStream open(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        return isGzipped(file) ? new GZIPInputStream(in) : in;
+    }
+
+    private static String plainName(Path file) {
+        String name = file.getFileName().toString();
+        return isGzipped(file) ? name.substring(0, name.length() - BufferedResultsWriter.GZIP_SUFFIX.length()) : name;
+    }
+
+    private static boolean isGzipped(Path file) {
+        return file.getFileName().toString().endsWith(BufferedResultsWriter.GZIP_SUFFIX);
+    }
+
+    private static boolean isResult(Path file) {
+        String name = plainName(file);
+        return name.endsWith("-result.json") || name.endsWith("-container.json");
+    }
+
+    private static boolean isHidden(Path file) {
+        return file.getFileName().toString().startsWith(".");
+    }
+
+    private static void deleteIfEmpty(Path directory) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            if (files.iterator().hasNext()) {
+                return;
+            }
+        }
+        Files.delete(directory);
+    }
+}
@@ -0,0 +1,155 @@
+package br.com.selenium.api.rerun;
+
+import br.com.selenium.api.annotation.Logger;
+import br.com.selenium.api.reporting.ResultsDirectory;
+import br.com.selenium.api.scheduling.ScenarioKey;
+import br.com.selenium.api.utils.ConfigManager;
+import br.com.selenium.api.utils.LoggerManager;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the scenarios that failed in the previous run, for the rerun stage (-Drerun.failed=true).
+ * The source is -Drerun.from: a JUnit XML report (default target/cucumber.xml, written by the
+ * Cucumber junit plugin) or an Allure results directory, where the latest result of every
+ * scenario counts. Scenarios are identified by ScenarioKey.
+ */
+@Logger(level = "INFO")
+public class FailedScenarios {
+    private static final String DEFAULT_REPORT = "target/cucumber.xml";
+    // The junit plugin names the rows of an outline "<outline>", "<outline> 2", "<outline> 3"...
+    private static final Pattern OUTLINE_ROW = Pattern.compile("(.+) \\d+");
+
+    private FailedScenarios() {
+        // Utility class
+    }
+
+    /**
+     * @return True if this run only reruns the failures of the previous one
+     */
+    public static boolean isRerun() {
+        return ConfigManager.getBoolean("rerun.failed", false);
+    }
+
+    /**
+     * Failed scenarios from -Drerun.from, or from target/cucumber.xml if it exists,
+     * or else from the Allure results directory.
+     * @return The keys of the failed scenarios
+     */
+    public static Set<String> fromConfig() {
+        String configured = ConfigManager.get("rerun.from", "");
+        Path source = !configured.isEmpty() ? Paths.get(configured)
+                : Files.exists(Paths.get(DEFAULT_REPORT)) ? Paths.get(DEFAULT_REPORT) : ResultsDirectory.results();
+        try {
+            Set<String> failed = Files.isDirectory(source) ? fromAllureResults(source) : fromJunitReport(source);
+            LoggerManager.info(failed.size() + " failed scenario(s) in " + source);
+            return failed;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read the failures of the previous run from " + source, e);
+        }
+    }
+
+    /**
+     * @param report A JUnit XML report of the Cucumber junit plugin
+     * @return The keys of the test cases with a failure or error
+     */
+    public static Set<String> fromJunitReport(Path report) throws IOException {
+        Set<String> failed = new LinkedHashSet<>();
+        Set<String> seen = new HashSet<>();
+        if (!Files.exists(report)) {
+            return failed;
+        }
+        try (InputStream in = Files.newInputStream(report)) {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            NodeList testCases = factory.newDocumentBuilder().parse(in).getElementsByTagName("testcase");
+            for (int i = 0; i < testCases.getLength(); i++) {
+                Element testCase = (Element) testCases.item(i);
+                String key = testCaseKey(testCase.getAttribute("classname"), testCase.getAttribute("name"), seen);
+                if (testCase.getElementsByTagName("failure").getLength() > 0
+                        || testCase.getElementsByTagName("error").getLength() > 0) {
+                    failed.add(key);
+                }
+            }
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Invalid JUnit report " + report, e);
+        }
+        return failed;
+    }
+
+    /**
+     * Key of a JUnit test case, mapping outline rows to their outline.
+     * A numbered name is a row only if the first row, without the number, came before it.
+     * @param seen Keys of the test cases read so far
+     */
+    private static String testCaseKey(String feature, String name, Set<String> seen) {
+        Matcher row = OUTLINE_ROW.matcher(name);
+        if (row.matches() && seen.contains(ScenarioKey.fromNames(feature, row.group(1)))) {
+            return ScenarioKey.fromNames(feature, row.group(1));
+        }
+        String key = ScenarioKey.fromNames(feature, name);
+        seen.add(key);
+        return key;
+    }
+
+    /**
+     * @param directory An Allure results directory
+     * @return The keys of the scenarios whose latest result is failed or broken
+     */
+    public static Set<String> fromAllureResults(Path directory) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, JsonNode> latest = new HashMap<>();
+        try (DirectoryStream<Path> results = Files.newDirectoryStream(directory, "*-result.json")) {
+            for (Path file : results) {
+                JsonNode result = mapper.readTree(file.toFile());
+                String feature = label(result, "feature");
+                String story = label(result, "story");
+                if (feature == null || story == null) {
+                    // Results of the JUnit listener (one per step), not scenarios
+                    continue;
+                }
+                String key = ScenarioKey.fromNames(feature, story);
+                JsonNode previous = latest.get(key);
+                if (previous == null || result.path("stop").asLong() > previous.path("stop").asLong()) {
+                    latest.put(key, result);
+                }
+            }
+        }
+        Set<String> failed = new LinkedHashSet<>();
+        for (Map.Entry<String, JsonNode> entry : latest.entrySet()) {
+            String status = entry.getValue().path("status").asText();
+            if ("failed".equals(status) || "broken".equals(status)) {
+                failed.add(entry.getKey());
+            }
+        }
+        return failed;
+    }
+
+    private static String label(JsonNode result, String name) {
+        for (JsonNode label : result.path("labels")) {
+            if (name.equals(label.path("name").asText())) {
+                return label.path("value").asText();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,85 @@
+package br.com.selenium.api.scheduling;
+
+import br.com.selenium.api.annotation.Database;
+import br.com.selenium.api.annotation.Logger;
+import br.com.selenium.api.database.DatabaseManager;
+import br.com.selenium.api.utils.ConfigManager;
+import br.com.selenium.api.utils.LoggerManager;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Historical scenario durations, kept in a file-backed H2 database (.test-history/durations)
+ * through DatabaseManager. Every scenario run adds a row; the estimate of a scenario is the
+ * average of its last -Dscheduling.history.runs runs (default 5).
+ * AUTO_SERVER lets several forked JVMs share the file. Disable with -Dscheduling.history.enabled=false.
+ */
+@Logger(level = "INFO")
+@Database(url = "jdbc:h2:file:./.test-history/durations;AUTO_SERVER=TRUE", maxPoolSize = 2)
+public class DurationStore {
+    private static final boolean ENABLED = ConfigManager.getBoolean("scheduling.history.enabled", true);
+    private static final int RUNS = ConfigManager.getInt("scheduling.history.runs", 5);
+    private static final String TABLE = "SCENARIO_DURATIONS";
+    private static boolean initialized;
+
+    private DurationStore() {
+        // Utility class
+    }
+
+    /**
+     * Record the duration of a finished scenario.
+     * @param scenarioKey The scenario key, see ScenarioKey
+     * @param durationMillis The scenario duration, hooks included
+     * @param status The Cucumber status, e.g. "passed"
+     */
+    public static void record(String scenarioKey, long durationMillis, String status) {
+        if (!ENABLED) {
+            return;
+        }
+        try {
+            initialize();
+            DatabaseManager.executeUpdate("INSERT INTO " + TABLE + " (SCENARIO_KEY, DURATION_MS, STATUS) VALUES (?, ?, ?)",
+                    scenarioKey, durationMillis, status);
+        } catch (SQLException e) {
+            LoggerManager.warn("Could not record scenario duration: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Estimated duration of every scenario with history.
+     * @return Scenario key to the average of its last runs, in milliseconds
+     */
+    public static Map<String, Long> estimates() {
+        Map<String, Long> estimates = new HashMap<>();
+        if (!ENABLED) {
+            return estimates;
+        }
+        try {
+            initialize();
+            List<Map<String, Object>> rows = DatabaseManager.executeQuery(
+                    "SELECT SCENARIO_KEY, AVG(DURATION_MS) AS ESTIMATE FROM ("
+                            + " SELECT SCENARIO_KEY, DURATION_MS,"
+                            + " ROW_NUMBER() OVER (PARTITION BY SCENARIO_KEY ORDER BY ID DESC) AS RN"
+                            + " FROM " + TABLE + ") WHERE RN <= ? GROUP BY SCENARIO_KEY", RUNS);
+            for (Map<String, Object> row : rows) {
+                estimates.put((String) row.get("SCENARIO_KEY"), ((Number) row.get("ESTIMATE")).longValue());
+            }
+        } catch (SQLException e) {
+            LoggerManager.warn("Could not read scenario durations: " + e.getMessage());
+        }
+        return estimates;
+    }
+
+    private static synchronized void initialize() throws SQLException {
+        if (!initialized) {
+            DatabaseManager.createTableIfNotExists(TABLE, "ID BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                    + "SCENARIO_KEY VARCHAR(1000) NOT NULL, DURATION_MS BIGINT NOT NULL, STATUS VARCHAR(20), "
+                    + "RECORDED_AT TIMESTAMP DEFAULT CURRENT_TIMESTAMP");
+            DatabaseManager.executeUpdate("CREATE INDEX IF NOT EXISTS IDX_SCENARIO_DURATIONS_KEY ON " + TABLE + " (SCENARIO_KEY)");
+            initialized = true;
+        }
+    }
+}
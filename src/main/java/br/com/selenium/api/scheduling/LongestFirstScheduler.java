@@ -0,0 +1,55 @@
+package br.com.selenium.api.scheduling;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Longest-processing-time-first scheduling: units are taken from the longest to the
+ * shortest and each one goes to the worker with the least work so far. The makespan is
+ * within 4/3 of the optimum, and ties are broken by key so every worker computes the
+ * same plan on its own.
+ */
+public class LongestFirstScheduler {
+
+    private LongestFirstScheduler() {
+        // Utility class
+    }
+
+    /**
+     * Order units longest first, ties by key.
+     * @param weights Unit to estimated duration
+     * @return The units, longest first
+     */
+    public static <T> List<T> longestFirst(Map<T, Long> weights, Map<T, String> keys) {
+        List<T> units = new ArrayList<>(weights.keySet());
+        units.sort(Comparator.<T>comparingLong(weights::get).reversed().thenComparing(keys::get));
+        return units;
+    }
+
+    /**
+     * Split units into bins of about equal total weight.
+     * @param weights Unit to estimated duration
+     * @param keys Unit to a stable key, used to break ties deterministically
+     * @param workers Number of bins
+     * @return One list per worker, each ordered longest first
+     */
+    public static <T> List<List<T>> partition(Map<T, Long> weights, Map<T, String> keys, int workers) {
+        List<List<T>> bins = new ArrayList<>();
+        PriorityQueue<long[]> load = new PriorityQueue<>(
+                Comparator.<long[]>comparingLong(bin -> bin[0]).thenComparingLong(bin -> bin[1]));
+        for (int i = 0; i < Math.max(1, workers); i++) {
+            bins.add(new ArrayList<>());
+            load.add(new long[]{0, i});
+        }
+        for (T unit : longestFirst(weights, keys)) {
+            long[] lightest = load.poll();
+            bins.get((int) lightest[1]).add(unit);
+            lightest[0] += weights.get(unit);
+            load.add(lightest);
+        }
+        return bins;
+    }
+}
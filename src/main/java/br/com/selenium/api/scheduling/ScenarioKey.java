@@ -0,0 +1,47 @@
+package br.com.selenium.api.scheduling;
+
+import java.util.Locale;
+
+/**
+ * Stable key of a scenario, shared by the duration store and the scheduler:
+ * "feature-id;scenario-id", the first two parts of the Cucumber scenario id.
+ * Rows of a scenario outline share the key of the outline.
+ */
+public class ScenarioKey {
+
+    private ScenarioKey() {
+        // Utility class
+    }
+
+    /**
+     * Key of a running scenario.
+     * @param scenarioId The id given by Cucumber (Scenario.getId())
+     * @return The scenario key
+     */
+    public static String fromId(String scenarioId) {
+        String[] parts = scenarioId.split(";");
+        return parts.length < 2 ? scenarioId : parts[0] + ";" + parts[1];
+    }
+
+    /**
+     * Key of a scenario from the display names used by the JUnit runner.
+     * @param featureName The feature name, e.g. "Feature: Demo"
+     * @param scenarioName The scenario name, e.g. "Scenario: Pesquisa"
+     * @return The scenario key
+     */
+    public static String fromNames(String featureName, String scenarioName) {
+        return idify(stripKeyword(featureName)) + ";" + idify(stripKeyword(scenarioName));
+    }
+
+    /**
+     * Same transformation Gherkin applies to build feature and scenario ids.
+     */
+    static String idify(String name) {
+        return name.replaceAll("[\\s_]", "-").toLowerCase(Locale.ROOT);
+    }
+
+    private static String stripKeyword(String name) {
+        int colon = name.indexOf(": ");
+        return colon < 0 ? name : name.substring(colon + 2);
+    }
+}
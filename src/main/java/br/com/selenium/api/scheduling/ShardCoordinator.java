@@ -0,0 +1,255 @@
+package br.com.selenium.api.scheduling;
+
+import br.com.selenium.api.annotation.Logger;
+import br.com.selenium.api.utils.ConfigManager;
+import br.com.selenium.api.utils.LoggerManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordinates identical workers (e.g. containers started with docker-compose --scale) through a
+ * shared directory, -Dshard.claim.directory/&lt;-Dshard.run.id&gt;:
+ * each worker claims the first free shard index, and the first worker to plan the run publishes
+ * its scenario-to-shard plan, which every other worker then follows. A worker that finishes marks
+ * its shard done, so late starters do not run it again, and the last one removes the run directory.
+ * A worker stopped before it finishes (Ctrl-C, docker stop) gives its claim back from a shutdown hook.
+ * A killed JVM cannot, so every run needs its own -Dshard.run.id; files older than
+ * -Dshard.claim.ttl.minutes (default 120) are left over from a crashed run and are replaced.
+ */
+@Logger(level = "INFO")
+public class ShardCoordinator {
+    private static final String PLAN_FILE = "plan.properties";
+
+    private final Path runDirectory;
+    private final long ttlMillis;
+    private Thread releaseOnExit;
+
+    public ShardCoordinator(Path runDirectory, long ttlMillis) {
+        this.runDirectory = runDirectory;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * @return The coordinator for this run, or null if -Dshard.claim.directory is not set
+     * @throws IllegalStateException If -Dshard.run.id is not set
+     */
+    public static ShardCoordinator fromConfig() {
+        String directory = ConfigManager.get("shard.claim.directory", "");
+        if (directory.isEmpty()) {
+            return null;
+        }
+        String runId = ConfigManager.get("shard.run.id", "");
+        if (runId.isEmpty()) {
+            // A fixed id would find the claims of a killed run and skip or refuse its shards
+            throw new IllegalStateException("-Dshard.claim.directory needs a -Dshard.run.id (RUN_ID in docker-compose)"
+                    + " unique to the run, e.g. RUN_ID=$(date +%s)");
+        }
+        runId = runId.replaceAll("[^A-Za-z0-9_.-]", "_");
+        return new ShardCoordinator(Paths.get(directory).resolve(runId),
+                TimeUnit.MINUTES.toMillis(ConfigManager.getLong("shard.claim.ttl.minutes", 120)));
+    }
+
+    /**
+     * Claim the first shard index no other worker holds.
+     * @param shardCount Number of shards
+     * @return The claimed index, 0-based
+     */
+    public int claimIndex(int shardCount) {
+        try {
+            Files.createDirectories(runDirectory);
+            for (int index = 0; index < shardCount; index++) {
+                Path done = doneFile(index);
+                if (Files.exists(done) && !deleteIfStale(done)) {
+                    continue;
+                }
+                if (createNew(claimFile(index), ConfigManager.get("HOSTNAME", "worker"))) {
+                    releaseOnExit(claimFile(index));
+                    LoggerManager.info("Claimed shard " + (index + 1) + "/" + shardCount + " in " + runDirectory);
+                    return index;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not claim a shard in " + runDirectory, e);
+        }
+        throw new IllegalStateException("Every shard of " + runDirectory + " is already claimed: start at most "
+                + shardCount + " worker(s) or use a new shard.run.id");
+    }
+
+    /**
+     * Mark a claimed shard as done, and end the run when every shard is done.
+     * Failures are only logged: the tests have already run.
+     * @param index The index returned by claimIndex
+     * @param shardCount Number of shards
+     */
+    public void complete(int index, int shardCount) {
+        if (releaseOnExit != null) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(releaseOnExit);
+            } catch (IllegalStateException e) {
+                // Already shutting down
+            }
+            releaseOnExit = null;
+        }
+        try {
+            if (Files.exists(claimFile(index))) {
+                Files.move(claimFile(index), doneFile(index), StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.write(doneFile(index), new byte[0]);
+            }
+            int done = 0;
+            for (int i = 0; i < shardCount; i++) {
+                if (Files.exists(doneFile(i))) {
+                    done++;
+                }
+            }
+            if (done < shardCount) {
+                LoggerManager.info("Shard " + (index + 1) + "/" + shardCount + " done, " + done + " of " + shardCount
+                        + " shard(s) done in " + runDirectory);
+                return;
+            }
+            List<Path> files = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(runDirectory)) {
+                stream.forEach(files::add);
+            }
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(runDirectory);
+            LoggerManager.info("Every shard of " + runDirectory + " is done, claims released");
+        } catch (NoSuchFileException | DirectoryNotEmptyException e) {
+            // Another worker finished at the same time and is cleaning up
+        } catch (IOException e) {
+            LoggerManager.warn("Could not release shard " + (index + 1) + " in " + runDirectory + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Delete the claim if the JVM stops before complete(), so the shard can be claimed again.
+     */
+    private void releaseOnExit(Path claim) {
+        releaseOnExit = new Thread(() -> {
+            try {
+                Files.deleteIfExists(claim);
+            } catch (IOException e) {
+                // The JVM is exiting, the claim expires with shard.claim.ttl.minutes
+            }
+        }, "shard-claim-release");
+        Runtime.getRuntime().addShutdownHook(releaseOnExit);
+    }
+
+    private Path claimFile(int index) {
+        return runDirectory.resolve("shard-" + index + ".claim");
+    }
+
+    private Path doneFile(int index) {
+        return runDirectory.resolve("shard-" + index + ".done");
+    }
+
+    /**
+     * Publish a plan unless another worker already did.
+     * @param plan Scenario key to shard index, as computed by this worker
+     * @return The plan every worker of the run follows
+     */
+    public Map<String, Integer> sharePlan(Map<String, Integer> plan) {
+        Path file = runDirectory.resolve(PLAN_FILE);
+        Properties properties = new Properties();
+        for (Map.Entry<String, Integer> entry : plan.entrySet()) {
+            properties.setProperty(entry.getKey(), String.valueOf(entry.getValue()));
+        }
+        try {
+            Files.createDirectories(runDirectory);
+            Path temp = Files.createTempFile(runDirectory, ".plan", ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                properties.store(out, "Scenario key to shard index");
+            }
+            try {
+                if (publish(temp, file)) {
+                    LoggerManager.info("Published the shard plan for " + plan.size() + " scenario(s)");
+                    return plan;
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            return readPlan(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not share the shard plan in " + runDirectory, e);
+        }
+    }
+
+    private Map<String, Integer> readPlan(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        }
+        Map<String, Integer> plan = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            plan.put(key, Integer.parseInt(properties.getProperty(key)));
+        }
+        LoggerManager.info("Following the shard plan published by another worker (" + plan.size() + " scenario(s))");
+        return plan;
+    }
+
+    private boolean createNew(Path claim, String owner) throws IOException {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                Files.write(Files.createFile(claim), owner.getBytes(StandardCharsets.UTF_8));
+                return true;
+            } catch (FileAlreadyExistsException e) {
+                if (!deleteIfStale(claim)) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Link the complete temp file under its final name, which fails atomically if the name exists.
+     */
+    private boolean publish(Path temp, Path file) throws IOException {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                Files.createLink(file, temp);
+                return true;
+            } catch (UnsupportedOperationException e) {
+                // No hard links on this file system: not atomic, but still first wins in practice
+                if (Files.exists(file) && !deleteIfStale(file)) {
+                    return false;
+                }
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+                return true;
+            } catch (FileAlreadyExistsException e) {
+                if (!deleteIfStale(file)) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean deleteIfStale(Path file) throws IOException {
+        if (System.currentTimeMillis() - Files.getLastModifiedTime(file).toMillis() < ttlMillis) {
+            return false;
+        }
+        LoggerManager.info("Replacing " + file.getFileName() + " left over from an earlier run");
+        return Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,33 @@
+package br.com.selenium.api.screenshots;
+
+import br.com.selenium.api.utils.ConfigManager;
+
+/**
+ * When step screenshots are taken.
+ * EVERY_STEP captures every requested screenshot, SAMPLED only every Nth one per scenario
+ * (-Dscreenshot.sample.rate, default 5) and ON_FAILURE none: only the failure screenshot
+ * taken by Hooks is attached.
+ */
+public enum CapturePolicy {
+    EVERY_STEP,
+    SAMPLED,
+    ON_FAILURE;
+
+    /**
+     * Resolve the policy configured for the run (-Dscreenshot.policy=every|sampled|failure
+     * or SCREENSHOT_POLICY).
+     * @return The configured policy, EVERY_STEP by default
+     */
+    public static CapturePolicy fromConfig() {
+        String value = ConfigManager.get("screenshot.policy", "every").trim().toLowerCase();
+        switch (value) {
+            case "sampled":
+                return SAMPLED;
+            case "failure":
+            case "on_failure":
+                return ON_FAILURE;
+            default:
+                return EVERY_STEP;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package br.com.selenium.api.screenshots;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Difference hash (dHash) of an image: 1024 bits that barely change when the image changes
+ * slightly (a blinking cursor, anti-aliasing), so near-duplicate screenshots have a small
+ * Hamming distance. The 33x32 grayscale thumbnail is area-averaged, so thin text in a
+ * full-page screenshot still shifts the gradients of its cells, and the grid is fine enough
+ * that two pages differing only in a message get different hashes.
+ */
+public class PerceptualHash {
+    private static final int SIZE = 32;
+
+    private PerceptualHash() {
+        // Utility class
+    }
+
+    /**
+     * Compute the difference hash of an image.
+     * @param image The image
+     * @return The hash, one bit per horizontal gradient of the 33x32 grayscale thumbnail
+     */
+    public static long[] dHash(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int columns = SIZE + 1;
+        long[] sums = new long[columns * SIZE];
+        int[] counts = new int[columns * SIZE];
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            int cellRow = (int) ((long) y * SIZE / height) * columns;
+            for (int x = 0; x < width; x++) {
+                int rgb = row[x];
+                int cell = cellRow + (int) ((long) x * columns / width);
+                sums[cell] += ((rgb >> 16) & 0xFF) * 299 + ((rgb >> 8) & 0xFF) * 587 + (rgb & 0xFF) * 114;
+                counts[cell]++;
+            }
+        }
+
+        long[] hash = new long[SIZE * SIZE / 64];
+        int bit = 0;
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++, bit++) {
+                int left = y * columns + x;
+                // Compare the averages without dividing: left / countLeft > right / countRight
+                if (sums[left] * Math.max(1, counts[left + 1]) > sums[left + 1] * Math.max(1, counts[left])) {
+                    hash[bit / 64] |= 1L << (bit % 64);
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Number of differing bits between two hashes.
+     */
+    public static int distance(long[] first, long[] second) {
+        int distance = 0;
+        for (int i = 0; i < first.length; i++) {
+            distance += Long.bitCount(first[i] ^ second[i]);
+        }
+        return distance;
+    }
+}
@@ -0,0 +1,309 @@
+package br.com.selenium.api.screenshots;
+
+import br.com.selenium.api.annotation.Logger;
+import br.com.selenium.api.attachments.AttachmentStore;
+import br.com.selenium.api.utils.ConfigManager;
+import br.com.selenium.api.utils.LoggerManager;
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Attaches screenshots to the Allure report off the test thread.
+ * The capture itself stays on the test thread (the driver is not thread safe), and the
+ * attachment is registered on the current step right away, so the report order is kept.
+ * Optional downscaling (-Dscreenshot.scale=0.5), recompression (-Dscreenshot.format=jpeg,
+ * -Dscreenshot.jpeg.quality=0.8) and the attachment file write run on a bounded executor
+ * (-Dscreenshot.async.threads, -Dscreenshot.async.queue). When the queue is full the test
+ * thread does the work itself. Use -Dscreenshot.async.enabled=false to write inline.
+ * Hooks waits for pending writes at the end of each scenario.
+ *
+ * Screenshots are deduplicated through the AttachmentStore: identical captures, within a
+ * scenario or across scenarios, are written once and referenced by every step
+ * (-Dscreenshot.dedup.enabled=false to disable). With -Dscreenshot.dedup.perceptual=true a
+ * capture of the same size whose perceptual hash is within -Dscreenshot.dedup.perceptual.threshold
+ * bits (default 2 of 1024) of an earlier one reuses that file too; this decodes the image on the
+ * test thread.
+ */
+@Logger(level = "DEBUG")
+public class ScreenshotPipeline {
+    private static ScreenshotPipeline instance;
+
+    private static final long FLUSH_TIMEOUT_SECONDS = ConfigManager.getLong("screenshot.flush.timeout.seconds", 30);
+    private static final int MAX_FINGERPRINTS = 256;
+
+    private static class Fingerprint {
+        private final long[] hash;
+        private final int width;
+        private final int height;
+        private final String source;
+
+        Fingerprint(long[] hash, int width, int height, String source) {
+            this.hash = hash;
+            this.width = width;
+            this.height = height;
+            this.source = source;
+        }
+    }
+
+    private final CapturePolicy policy;
+    private final int sampleRate;
+    private final double scale;
+    private final boolean jpeg;
+    private final float jpegQuality;
+    private final ThreadPoolExecutor executor;
+    private final AttachmentStore store;
+    private final int perceptualThreshold;
+    private final List<Fingerprint> fingerprints = new CopyOnWriteArrayList<>();
+    private final List<Future<?>> pending = new CopyOnWriteArrayList<>();
+    private final AtomicInteger requested = new AtomicInteger();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong encodeNanos = new AtomicLong();
+
+    /**
+     * @param store Content-addressed store, or null to write every screenshot
+     * @param perceptualThreshold Maximum dHash distance of near-duplicates, negative to disable
+     */
+    ScreenshotPipeline(CapturePolicy policy, int sampleRate, double scale, String format, boolean async,
+                       AttachmentStore store, int perceptualThreshold) {
+        this.policy = policy;
+        this.sampleRate = Math.max(1, sampleRate);
+        this.scale = scale > 0 && scale < 1 ? scale : 1.0;
+        this.jpeg = "jpeg".equalsIgnoreCase(format) || "jpg".equalsIgnoreCase(format);
+        this.jpegQuality = (float) ConfigManager.getDouble("screenshot.jpeg.quality", 0.8);
+        this.executor = async ? createExecutor() : null;
+        this.store = store;
+        this.perceptualThreshold = store == null ? -1 : perceptualThreshold;
+    }
+
+    /**
+     * Gets the pipeline configured for the run.
+     * @return The ScreenshotPipeline instance
+     */
+    public static synchronized ScreenshotPipeline getInstance() {
+        if (instance == null) {
+            instance = new ScreenshotPipeline(
+                    CapturePolicy.fromConfig(),
+                    ConfigManager.getInt("screenshot.sample.rate", 5),
+                    ConfigManager.getDouble("screenshot.scale", 1.0),
+                    ConfigManager.get("screenshot.format", "png"),
+                    ConfigManager.getBoolean("screenshot.async.enabled", true),
+                    ConfigManager.getBoolean("screenshot.dedup.enabled", true) ? AttachmentStore.getInstance() : null,
+                    ConfigManager.getBoolean("screenshot.dedup.perceptual", false)
+                            ? ConfigManager.getInt("screenshot.dedup.perceptual.threshold", 2) : -1);
+        }
+        return instance;
+    }
+
+    /**
+     * Reset the sampling counter, so the first step screenshot of every scenario is kept.
+     */
+    public void startScenario() {
+        requested.set(0);
+    }
+
+    /**
+     * Decide whether a step screenshot should be captured under the capture policy.
+     * @return True if the caller should capture and attach the screenshot
+     */
+    public boolean shouldCapture() {
+        boolean capture;
+        switch (policy) {
+            case ON_FAILURE:
+                capture = false;
+                break;
+            case SAMPLED:
+                capture = requested.getAndIncrement() % sampleRate == 0;
+                break;
+            default:
+                capture = true;
+        }
+        if (!capture) {
+            skipped.incrementAndGet();
+        }
+        return capture;
+    }
+
+    /**
+     * Attach a captured PNG screenshot to the current Allure step.
+     * The attachment entry is added now; encoding and the file write happen in the background.
+     * @param name The attachment name
+     * @param png The screenshot as returned by the driver
+     */
+    public void attach(String name, byte[] png) {
+        AllureLifecycle lifecycle = Allure.getLifecycle();
+        String extension = jpeg ? "jpg" : "png";
+        String prepared = lifecycle.prepareAttachment(name, jpeg ? "image/jpeg" : "image/png", extension);
+        String source = prepared;
+
+        if (store != null) {
+            source = deduplicate(png, extension);
+            AttachmentStore.relink(lifecycle, prepared, source);
+            if (!store.claim(source, png.length)) {
+                LoggerManager.trace("Screenshot already stored, referencing " + source + ": " + name);
+                return;
+            }
+        }
+
+        String target = source;
+        Runnable write = () -> write(lifecycle, target, name, png);
+        if (executor == null) {
+            write.run();
+            return;
+        }
+        pending.removeIf(Future::isDone);
+        pending.add(executor.submit(write));
+    }
+
+    /**
+     * Content-addressed source of a screenshot, or the source of a near-duplicate.
+     */
+    private String deduplicate(byte[] png, String extension) {
+        String variant = scale == 1.0 && !jpeg ? "" : "-" + Math.round(scale * 100) + (jpeg ? "q" + Math.round(jpegQuality * 100) : "");
+        String source = AttachmentStore.sourceFor(AttachmentStore.sha256(png) + variant, extension);
+        if (perceptualThreshold < 0) {
+            return source;
+        }
+
+        try {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+            if (image == null) {
+                return source;
+            }
+            long[] hash = PerceptualHash.dHash(image);
+            for (ListIterator<Fingerprint> it = fingerprints.listIterator(fingerprints.size()); it.hasPrevious(); ) {
+                Fingerprint fingerprint = it.previous();
+                // A different size is a different page (or viewport), however similar the thumbnails
+                if (fingerprint.width == image.getWidth() && fingerprint.height == image.getHeight()
+                        && PerceptualHash.distance(hash, fingerprint.hash) <= perceptualThreshold) {
+                    return fingerprint.source;
+                }
+            }
+            fingerprints.add(new Fingerprint(hash, image.getWidth(), image.getHeight(), source));
+            if (fingerprints.size() > MAX_FINGERPRINTS) {
+                fingerprints.remove(0);
+            }
+        } catch (IOException e) {
+            LoggerManager.debug("Could not compute perceptual hash: " + e.getMessage());
+        }
+        return source;
+    }
+
+    /**
+     * Wait until every pending screenshot has been written.
+     */
+    public void flush() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(FLUSH_TIMEOUT_SECONDS);
+        for (Future<?> future : pending) {
+            try {
+                future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                LoggerManager.warn("Screenshot write still pending after " + FLUSH_TIMEOUT_SECONDS + " s");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                LoggerManager.error("Failed to write screenshot: " + e.getCause());
+            }
+        }
+        pending.clear();
+        LoggerManager.debug(String.format("Screenshots: %d written, %d skipped by policy %s, %d ms encoding off the test thread",
+                written.get(), skipped.get(), policy, TimeUnit.NANOSECONDS.toMillis(encodeNanos.get())));
+    }
+
+    private void write(AllureLifecycle lifecycle, String source, String name, byte[] png) {
+        long start = System.nanoTime();
+        try {
+            byte[] bytes = encode(png);
+            lifecycle.writeAttachment(source, new ByteArrayInputStream(bytes));
+            written.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            LoggerManager.error("Failed to write screenshot: " + name + ". Error: " + e.getMessage());
+        } finally {
+            encodeNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Downscale and recompress a PNG screenshot as configured.
+     * @param png The original PNG bytes
+     * @return The bytes to store, the original ones if no conversion is configured
+     */
+    byte[] encode(byte[] png) throws IOException {
+        if (scale == 1.0 && !jpeg) {
+            return png;
+        }
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        if (image == null) {
+            return png;
+        }
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+        BufferedImage target = new BufferedImage(width, height, jpeg ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (!jpeg) {
+            ImageIO.write(target, "png", out);
+            return out.toByteArray();
+        }
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        ImageWriter writer = writers.next();
+        try (ImageOutputStream imageOut = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.setOutput(imageOut);
+            writer.write(null, new IIOImage(target, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static ThreadPoolExecutor createExecutor() {
+        int threads = Math.max(1, ConfigManager.getInt("screenshot.async.threads", 2));
+        int queueSize = Math.max(1, ConfigManager.getInt("screenshot.async.queue", 32));
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "screenshot-writer-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -0,0 +1,271 @@
+package br.com.selenium.api.server;
+
+import br.com.selenium.api.annotation.Logger;
+import br.com.selenium.api.utils.ConfigManager;
+import br.com.selenium.api.utils.LoggerManager;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process HTTP stub for API tests, served by LocalWebServer under -Dapi.stub.context (default /api),
+ * so it starts once per run on the same ephemeral loopback port and tests never leave the machine.
+ * Routes come from recorded fixtures, JSON files on the classpath listed in -Dapi.stub.fixtures
+ * (default stubs/users.json), or are defined in code with stub(method, path).
+ * Paths may have {name} parameters, which are also replaced in the response body.
+ * The first matching route wins; routes defined in code take precedence over fixtures.
+ * Remove routes defined in code with unstub(route), or all of them with reset() in the test teardown.
+ * Received requests are only recorded after setRecording(true) (or -Dapi.stub.record=true), and only
+ * the last -Dapi.stub.record.max (default 1000) are kept, so load tests do not fill the heap.
+ *
+ * Fixture format:
+ * [{"method": "GET", "path": "/api/users/{id}", "status": 200,
+ *   "headers": {"Content-Type": "application/json"}, "body": "{\"id\": {id}}"}]
+ * "body" may also be a JSON object, or "bodyFile" a classpath resource.
+ */
+@Logger(level = "INFO")
+public class ApiStubServer {
+    private static final Pattern PARAMETER = Pattern.compile("\\{([A-Za-z0-9_]+)}");
+    private static final String DEFAULT_CONTENT_TYPE = "application/json; charset=UTF-8";
+    private static ApiStubServer instance;
+
+    private final LocalWebServer server;
+    private final String context;
+    private final List<Route> stubs = new CopyOnWriteArrayList<>();
+    private final List<Route> routes = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<String> received =
+            new ArrayBlockingQueue<>(Math.max(1, ConfigManager.getInt("api.stub.record.max", 1000)));
+    private volatile boolean recording = ConfigManager.getBoolean("api.stub.record", false);
+
+    private ApiStubServer(LocalWebServer server, String context) {
+        this.server = server;
+        this.context = context;
+        server.addHandler(context, this::handle);
+        for (String fixture : ConfigManager.get("api.stub.fixtures", "stubs/users.json").split("\\s*,\\s*")) {
+            if (!fixture.isEmpty()) {
+                load(fixture);
+            }
+        }
+        LoggerManager.info("Stub de API com " + routes.size() + " rota(s) em " + getBaseUrl());
+    }
+
+    /**
+     * Gets the stub, starting it (and LocalWebServer) on first use.
+     * @return The ApiStubServer instance
+     */
+    public static synchronized ApiStubServer getInstance() {
+        if (instance == null) {
+            instance = new ApiStubServer(LocalWebServer.getInstance(), ConfigManager.get("api.stub.context", "/api"));
+        }
+        return instance;
+    }
+
+    /**
+     * @return The server URL, e.g. http://127.0.0.1:41234; route paths are appended to it
+     */
+    public String getBaseUrl() {
+        return server.getBaseUrl();
+    }
+
+    /**
+     * Define a route in code. It takes precedence over the routes loaded from fixtures.
+     * @param method The HTTP method, e.g. "GET"
+     * @param path The path, starting with the stub context, e.g. "/api/users/{id}"
+     * @return The route, to set its response
+     */
+    public Route stub(String method, String path) {
+        Route route = new Route(method, path);
+        stubs.add(0, route);
+        return route;
+    }
+
+    /**
+     * Remove a route defined in code with stub(method, path).
+     * @param route The route returned by stub
+     */
+    public void unstub(Route route) {
+        stubs.remove(route);
+    }
+
+    /**
+     * Remove every route defined in code and forget the received requests. Fixture routes stay.
+     * Call it in the test teardown; routes are shared by all tests of the run.
+     */
+    public void reset() {
+        stubs.clear();
+        received.clear();
+    }
+
+    /**
+     * Load routes from a JSON fixture on the classpath.
+     * @param resource The resource, e.g. "stubs/users.json"
+     */
+    public void load(String resource) {
+        try (InputStream in = resource(resource)) {
+            for (JsonNode definition : new ObjectMapper().readTree(in)) {
+                Route route = new Route(definition.path("method").asText("GET"), definition.path("path").asText());
+                route.status = definition.path("status").asInt(200);
+                Iterator<Map.Entry<String, JsonNode>> headers = definition.path("headers").fields();
+                while (headers.hasNext()) {
+                    Map.Entry<String, JsonNode> header = headers.next();
+                    route.headers.put(header.getKey(), header.getValue().asText());
+                }
+                JsonNode body = definition.path("body");
+                if (definition.has("bodyFile")) {
+                    try (InputStream file = resource(definition.path("bodyFile").asText())) {
+                        route.body = IOUtils.toString(file, StandardCharsets.UTF_8);
+                    }
+                } else if (!body.isMissingNode()) {
+                    route.body = body.isTextual() ? body.asText() : body.toString();
+                }
+                routes.add(route);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Fixture de stub inválida: " + resource, e);
+        }
+    }
+
+    /**
+     * Start or stop recording the received requests.
+     * @param recording true to record them, see getReceivedRequests()
+     */
+    public void setRecording(boolean recording) {
+        this.recording = recording;
+    }
+
+    /**
+     * @return The requests received while recording, as "METHOD /path", oldest first
+     */
+    public List<String> getReceivedRequests() {
+        return new ArrayList<>(received);
+    }
+
+    private static InputStream resource(String name) throws IOException {
+        InputStream in = ApiStubServer.class.getResourceAsStream(name.startsWith("/") ? name : "/" + name);
+        if (in == null) {
+            throw new IOException("Recurso não encontrado no classpath: " + name);
+        }
+        return in;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        if (recording) {
+            // Keep only the most recent requests
+            while (!received.offer(method + " " + path)) {
+                received.poll();
+            }
+        }
+        // Drain the request body so the connection can be reused
+        IOUtils.toByteArray(exchange.getRequestBody());
+
+        if (respond(exchange, stubs, method, path) || respond(exchange, routes, method, path)) {
+            return;
+        }
+        LoggerManager.warn("Nenhuma rota de stub para " + method + " " + path);
+        LocalWebServer.sendResponse(exchange, 404, DEFAULT_CONTENT_TYPE,
+                ("{\"error\": \"no stub for " + method + " " + path + "\"}").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean respond(HttpExchange exchange, List<Route> candidates, String method, String path)
+            throws IOException {
+        for (Route route : candidates) {
+            Map<String, String> parameters = route.match(method, path);
+            if (parameters != null) {
+                String contentType = route.headers.getOrDefault("Content-Type", DEFAULT_CONTENT_TYPE);
+                for (Map.Entry<String, String> header : route.headers.entrySet()) {
+                    exchange.getResponseHeaders().set(header.getKey(), header.getValue());
+                }
+                LocalWebServer.sendResponse(exchange, route.status, contentType,
+                        route.render(parameters).getBytes(StandardCharsets.UTF_8));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * One stubbed endpoint and its canned response.
+     */
+    public class Route {
+        private final String method;
+        private final Pattern pattern;
+        private final List<String> parameterNames = new ArrayList<>();
+        private final Map<String, String> headers = new LinkedHashMap<>();
+        private int status = 200;
+        private String body = "";
+
+        private Route(String method, String path) {
+            if (!path.startsWith(context)) {
+                throw new IllegalArgumentException("A rota " + path + " deve começar com " + context);
+            }
+            this.method = method.toUpperCase();
+            Matcher matcher = PARAMETER.matcher(path);
+            StringBuilder regex = new StringBuilder();
+            int last = 0;
+            while (matcher.find()) {
+                regex.append(Pattern.quote(path.substring(last, matcher.start()))).append("([^/]+)");
+                parameterNames.add(matcher.group(1));
+                last = matcher.end();
+            }
+            regex.append(Pattern.quote(path.substring(last)));
+            this.pattern = Pattern.compile(regex.toString());
+        }
+
+        /**
+         * Set the response of this route.
+         * @param status The HTTP status
+         * @param body The response body; {name} path parameters are replaced
+         * @return This route
+         */
+        public Route respond(int status, String body) {
+            this.status = status;
+            this.body = body;
+            return this;
+        }
+
+        public Route header(String name, String value) {
+            headers.put(name, value);
+            return this;
+        }
+
+        private Map<String, String> match(String requestMethod, String path) {
+            if (!method.equals(requestMethod)) {
+                return null;
+            }
+            Matcher matcher = pattern.matcher(path);
+            if (!matcher.matches()) {
+                return null;
+            }
+            Map<String, String> parameters = new LinkedHashMap<>();
+            for (int i = 0; i < parameterNames.size(); i++) {
+                parameters.put(parameterNames.get(i), matcher.group(i + 1));
+            }
+            return parameters;
+        }
+
+        private String render(Map<String, String> parameters) {
+            String rendered = body;
+            for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+                rendered = rendered.replace("{" + parameter.getKey() + "}", parameter.getValue());
+            }
+            return rendered;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package br.com.selenium.api.server;
+
+import br.com.selenium.api.annotation.Logger;
+import br.com.selenium.api.utils.ConfigManager;
+import br.com.selenium.api.utils.LoggerManager;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Singleton in-process HTTP server for tests that must run without external sites.
+ * Listens on the loopback interface on an ephemeral port (or -Dlocal.server.port)
+ * and serves static pages from the "pages" folder of the classpath.
+ */
+@Logger(level = "INFO")
+public class LocalWebServer {
+    private static final String PAGES_ROOT = "/pages";
+    private static LocalWebServer instance;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private LocalWebServer() throws IOException {
+        // Headers and body are separate writes: without TCP_NODELAY each keep-alive response waits for a delayed ACK (~40 ms)
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                ConfigManager.getInt("local.server.port", 0));
+        server = HttpServer.create(address, 0);
+        executor = Executors.newFixedThreadPool(ConfigManager.getInt("local.server.threads", 8), runnable -> {
+            Thread thread = new Thread(runnable, "local-web-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::serveClasspathPage);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::stop));
+        LoggerManager.info("Servidor local iniciado em " + getBaseUrl());
+    }
+
+    /**
+     * Gets the running server, starting it on first use.
+     * @return The LocalWebServer instance
+     */
+    public static synchronized LocalWebServer getInstance() {
+        if (instance == null) {
+            try {
+                instance = new LocalWebServer();
+            } catch (IOException e) {
+                throw new IllegalStateException("Não foi possível iniciar o servidor local", e);
+            }
+        }
+        return instance;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + getPort();
+    }
+
+    /**
+     * Build an absolute URL for a path served by this server.
+     * @param path The path, e.g. "/index.html"
+     * @return The absolute URL
+     */
+    public String url(String path) {
+        return getBaseUrl() + (path.startsWith("/") ? path : "/" + path);
+    }
+
+    /**
+     * Register a handler for a path prefix. More specific prefixes win over "/".
+     * @param path The context path, e.g. "/api"
+     * @param handler The handler serving requests under that path
+     */
+    public void addHandler(String path, HttpHandler handler) {
+        server.createContext(path, handler);
+    }
+
+    public synchronized void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void serveClasspathPage(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if (path.endsWith("/")) {
+            path = path + "index.html";
+        }
+
+        try (InputStream page = path.contains("..") ? null : LocalWebServer.class.getResourceAsStream(PAGES_ROOT + path)) {
+            if (page == null) {
+                sendResponse(exchange, 404, "text/plain; charset=UTF-8", ("Not found: " + path).getBytes("UTF-8"));
+                return;
+            }
+            sendResponse(exchange, 200, contentTypeOf(path), IOUtils.toByteArray(page));
+        }
+    }
+
+    static void sendResponse(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String contentTypeOf(String path) {
+        if (path.endsWith(".html") || path.endsWith(".htm")) {
+            return "text/html; charset=UTF-8";
+        } else if (path.endsWith(".css")) {
+            return "text/css; charset=UTF-8";
+        } else if (path.endsWith(".js")) {
+            return "application/javascript; charset=UTF-8";
+        } else if (path.endsWith(".json")) {
+            return "application/json; charset=UTF-8";
+        } else if (path.endsWith(".png")) {
+            return "image/png";
+        }
+        return "application/octet-stream";
+    }
+}
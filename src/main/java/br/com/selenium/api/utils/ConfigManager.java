@@ -0,0 +1,74 @@
+package br.com.selenium.api.utils;
+
+/**
+ * Utility class for reading framework configuration.
+ * A key such as "wait.timeout.millis" is looked up as a system property first,
+ * then as the environment variable WAIT_TIMEOUT_MILLIS, and finally falls back to the default.
+ */
+public class ConfigManager {
+
+    private ConfigManager() {
+        // Utility class
+    }
+
+    /**
+     * Get a configuration value.
+     *
+     * @param key The property key (dot separated)
+     * @param defaultValue The value returned when the key is not configured
+     * @return The configured value or the default
+     */
+    public static String get(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            value = System.getenv(toEnvName(key));
+        }
+        return (value == null || value.trim().isEmpty()) ? defaultValue : value.trim();
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = get(key, null);
+        try {
+            return value == null ? defaultValue : Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            LoggerManager.warn("Invalid integer for '" + key + "': " + value + ". Using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = get(key, null);
+        try {
+            return value == null ? defaultValue : Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            LoggerManager.warn("Invalid number for '" + key + "': " + value + ". Using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static double getDouble(String key, double defaultValue) {
+        String value = get(key, null);
+        try {
+            return value == null ? defaultValue : Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            LoggerManager.warn("Invalid number for '" + key + "': " + value + ". Using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+
+    /**
+     * Convert a property key into its environment variable name.
+     * Example: "wait.timeout.millis" becomes "WAIT_TIMEOUT_MILLIS".
+     *
+     * @param key The property key
+     * @return The environment variable name
+     */
+    static String toEnvName(String key) {
+        return key.replace('.', '_').replace('-', '_').toUpperCase();
+    }
+}
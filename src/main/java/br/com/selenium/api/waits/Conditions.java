@@ -0,0 +1,105 @@
+package br.com.selenium.api.waits;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+
+import java.util.List;
+
+/**
+ * Composable conditions for the WaitEngine.
+ * Every factory returns a Selenium ExpectedCondition, so these can be mixed
+ * with ExpectedConditions and combined with allOf, anyOf and not.
+ */
+public class Conditions {
+
+    private Conditions() {
+        // Utility class
+    }
+
+    /**
+     * At least one element matches the locator.
+     */
+    public static ExpectedCondition<WebElement> present(By locator) {
+        return ExpectedConditions.presenceOfElementLocated(locator);
+    }
+
+    /**
+     * No element matches the locator.
+     * Uses findElements, which returns immediately when implicit waits are off.
+     */
+    public static ExpectedCondition<Boolean> absent(final By locator) {
+        return new ExpectedCondition<Boolean>() {
+            @Override
+            public Boolean apply(WebDriver driver) {
+                List<WebElement> elements = driver.findElements(locator);
+                return elements.isEmpty();
+            }
+
+            @Override
+            public String toString() {
+                return "absence of element located by " + locator;
+            }
+        };
+    }
+
+    public static ExpectedCondition<WebElement> visible(By locator) {
+        return ExpectedConditions.visibilityOfElementLocated(locator);
+    }
+
+    public static ExpectedCondition<WebElement> visible(WebElement element) {
+        return ExpectedConditions.visibilityOf(element);
+    }
+
+    public static ExpectedCondition<WebElement> clickable(WebElement element) {
+        return ExpectedConditions.elementToBeClickable(element);
+    }
+
+    /**
+     * The document has been parsed (readyState "interactive" or "complete").
+     * Needed when the page-load strategy is "none", where get() returns immediately.
+     */
+    public static ExpectedCondition<Boolean> documentReady() {
+        return new ExpectedCondition<Boolean>() {
+            @Override
+            public Boolean apply(WebDriver driver) {
+                Object state = ((JavascriptExecutor) driver).executeScript("return document.readyState");
+                return !"loading".equals(state);
+            }
+
+            @Override
+            public String toString() {
+                return "document ready";
+            }
+        };
+    }
+
+    public static ExpectedCondition<Boolean> titleContains(String text) {
+        return ExpectedConditions.titleContains(text);
+    }
+
+    public static ExpectedCondition<Boolean> urlContains(String fraction) {
+        return ExpectedConditions.urlContains(fraction);
+    }
+
+    /**
+     * All conditions hold at the same time.
+     */
+    public static ExpectedCondition<Boolean> allOf(ExpectedCondition<?>... conditions) {
+        return ExpectedConditions.and(conditions);
+    }
+
+    /**
+     * Any of the conditions holds.
+     */
+    public static ExpectedCondition<Boolean> anyOf(ExpectedCondition<?>... conditions) {
+        return ExpectedConditions.or(conditions);
+    }
+
+    public static ExpectedCondition<Boolean> not(ExpectedCondition<?> condition) {
+        return ExpectedConditions.not(condition);
+    }
+}
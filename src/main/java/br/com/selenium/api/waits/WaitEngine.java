@@ -0,0 +1,126 @@
+package br.com.selenium.api.waits;
+
+import br.com.selenium.api.annotation.Logger;
+import br.com.selenium.api.utils.ConfigManager;
+import br.com.selenium.api.utils.LoggerManager;
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Explicit wait engine used by SeleniumActions in place of implicit waits.
+ * Conditions are polled with an adaptive backoff: the first checks happen a few
+ * milliseconds apart and the interval grows up to a ceiling, so fast conditions
+ * return almost immediately and slow ones do not flood the driver with requests.
+ */
+@Logger(level = "DEBUG")
+public class WaitEngine {
+    private static final boolean ENABLED = ConfigManager.getBoolean("wait.engine.enabled", true);
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofMillis(ConfigManager.getLong("wait.timeout.millis", 10000));
+    private static final long INITIAL_POLL_MILLIS = ConfigManager.getLong("wait.poll.initial.millis", 10);
+    private static final long MAX_POLL_MILLIS = ConfigManager.getLong("wait.poll.max.millis", 500);
+    private static final double BACKOFF_FACTOR = 1.5;
+
+    private final WebDriver driver;
+
+    public WaitEngine(WebDriver driver) {
+        this.driver = driver;
+    }
+
+    /**
+     * Whether the engine replaces implicit waits.
+     * Disable with -Dwait.engine.enabled=false to restore the legacy 30s implicit wait.
+     * @return True if implicit waits should be turned off
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public static Duration getDefaultTimeout() {
+        return DEFAULT_TIMEOUT;
+    }
+
+    /**
+     * Wait for a condition using the default timeout.
+     * @param condition The condition to evaluate against the driver.
+     * @return The first non-null, non-false value returned by the condition.
+     */
+    public <T> T until(Function<? super WebDriver, T> condition) {
+        return until(condition, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Wait for a condition using a per-call timeout.
+     * A timeout of zero evaluates the condition exactly once.
+     * @param condition The condition to evaluate against the driver.
+     * @param timeout Maximum time to wait.
+     * @return The first non-null, non-false value returned by the condition.
+     * @throws TimeoutException If the condition is not met in time.
+     */
+    public <T> T until(Function<? super WebDriver, T> condition, Duration timeout) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        long pollMillis = INITIAL_POLL_MILLIS;
+        int attempts = 0;
+        RuntimeException lastException = null;
+
+        while (true) {
+            attempts++;
+            try {
+                T value = condition.apply(driver);
+                if (value != null && !Boolean.FALSE.equals(value)) {
+                    LoggerManager.trace("Condition met after " + attempts + " attempt(s) in "
+                            + elapsedMillis(start) + " ms: " + condition);
+                    return value;
+                }
+                lastException = null;
+            } catch (NotFoundException | StaleElementReferenceException e) {
+                lastException = e;
+            }
+
+            long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos <= 0) {
+                String message = "Condition not met after " + elapsedMillis(start) + " ms ("
+                        + attempts + " attempt(s)): " + condition;
+                throw new TimeoutException(message, lastException);
+            }
+
+            long remainingMillis = (remainingNanos + 999_999) / 1_000_000;
+            sleep(Math.min(pollMillis, remainingMillis));
+            pollMillis = Math.min(MAX_POLL_MILLIS, (long) Math.ceil(pollMillis * BACKOFF_FACTOR));
+        }
+    }
+
+    /**
+     * Evaluate a condition without failing.
+     * @param condition The condition to evaluate.
+     * @param timeout Maximum time to wait.
+     * @return True if the condition was met within the timeout.
+     */
+    public boolean isSatisfied(Function<? super WebDriver, ?> condition, Duration timeout) {
+        try {
+            until(condition, timeout);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebDriverException("Interrupted while waiting", e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package br.com.selenium.api.actions;
+
+import br.com.selenium.api.drivers.BrowserProfile;
+import br.com.selenium.api.drivers.HtmlUnitDriverProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * JUnit test class for ActionPipeline, against an HtmlUnit page.
+ * Verifies that Enter reaches the page both inside and outside a form.
+ */
+public class ActionPipelineTest {
+    private static final String PAGE = "data:text/html,"
+            + "<form action=\"javascript:document.title='submitted:'+document.forms[0].q.value\">"
+            + "<input name='q'></form>"
+            + "<input id='filter' onkeydown=\"if (event.key === 'Enter') document.title += 'enter;'\">";
+
+    private WebDriver driver;
+    private SeleniumActions actions;
+
+    @Before
+    public void setUp() {
+        driver = new HtmlUnitDriverProvider().createDriver(BrowserProfile.fromConfig());
+        driver.get(PAGE);
+        actions = new SeleniumActions(driver);
+    }
+
+    @After
+    public void tearDown() {
+        driver.quit();
+    }
+
+    /**
+     * Enter in a form field submits the form from script.
+     */
+    @Test
+    public void testEnterSubmitsTheForm() {
+        WebElement field = driver.findElement(By.name("q"));
+
+        actions.pipeline().clearAndType(field, "allure").pressEnter(field).run();
+
+        assertEquals("submitted:allure", driver.getTitle());
+    }
+
+    /**
+     * Enter outside a form is left to a native key press, which the page receives once.
+     */
+    @Test
+    public void testEnterOutsideAFormUsesNativeEvents() {
+        WebElement field = driver.findElement(By.id("filter"));
+
+        actions.pipeline().clearAndType(field, "docker").pressEnter(field).run();
+
+        assertEquals("enter;", driver.getTitle());
+    }
+}
@@ -0,0 +1,162 @@
+package br.com.selenium.api.actions;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * JUnit test class for PageStateCache.
+ * Verifies that SeleniumActions serves repeated reads locally and invalidates them on page changes.
+ */
+public class PageStateCacheTest {
+
+    private WebDriver driver;
+    private SeleniumActions seleniumActions;
+
+    @Before
+    public void setUp() {
+        driver = Mockito.mock(WebDriver.class);
+        when(driver.getTitle()).thenReturn("Google");
+        when(driver.getCurrentUrl()).thenReturn("https://www.google.com/");
+        seleniumActions = new SeleniumActions(driver);
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty("page.cache.mutationTracking");
+        System.clearProperty("page.cache.mutationCheckMillis");
+    }
+
+    /**
+     * Repeated reads of an unchanged page hit the driver only once.
+     */
+    @Test
+    public void testRepeatedReadsAreServedFromCache() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals("Google", seleniumActions.getTitle());
+            assertEquals("https://www.google.com/", seleniumActions.getCurrentUrl());
+        }
+
+        verify(driver, times(1)).getTitle();
+        verify(driver, times(1)).getCurrentUrl();
+        assertEquals(8, seleniumActions.getPageCache().getHits());
+        assertEquals(2, seleniumActions.getPageCache().getMisses());
+    }
+
+    /**
+     * Actions that change the page invalidate the cache.
+     */
+    @Test
+    public void testPageChangingActionsInvalidateCache() {
+        WebElement element = Mockito.mock(WebElement.class);
+        when(element.isDisplayed()).thenReturn(true);
+        when(element.isEnabled()).thenReturn(true);
+
+        seleniumActions.getTitle();
+        seleniumActions.click(element);
+        seleniumActions.getTitle();
+        seleniumActions.pressEnter(element);
+        seleniumActions.getTitle();
+
+        verify(driver, times(3)).getTitle();
+    }
+
+    /**
+     * Every SeleniumActions on the same driver shares the same cache.
+     */
+    @Test
+    public void testCacheIsSharedPerDriver() {
+        SeleniumActions other = new SeleniumActions(driver);
+
+        seleniumActions.getTitle();
+        other.getTitle();
+
+        assertSame(seleniumActions.getPageCache(), other.getPageCache());
+        verify(driver, times(1)).getTitle();
+    }
+
+    /**
+     * DOM changes made outside SeleniumActions (JavaScript, async navigation) invalidate the cache.
+     */
+    @Test
+    public void testDomMutationsInvalidateCache() {
+        System.setProperty("page.cache.mutationTracking", "true");
+        System.setProperty("page.cache.mutationCheckMillis", "0");
+        WebDriver jsDriver = javascriptDriver();
+        // Observer installed, no changes, no changes, then the page changed by itself
+        when(((JavascriptExecutor) jsDriver).executeScript(anyString())).thenReturn(-1L, 0L, 0L, 3L);
+        SeleniumActions actions = new SeleniumActions(jsDriver);
+
+        actions.getTitle();
+        actions.getTitle();
+        actions.getTitle();
+        actions.getTitle();
+
+        verify(jsDriver, times(2)).getTitle();
+    }
+
+    /**
+     * Repeated hits read the mutation counter once, not on every lookup.
+     */
+    @Test
+    public void testMutationCounterIsReadOncePerPageVersion() {
+        System.setProperty("page.cache.mutationTracking", "true");
+        System.setProperty("page.cache.mutationCheckMillis", "60000");
+        WebDriver jsDriver = javascriptDriver();
+        when(((JavascriptExecutor) jsDriver).executeScript(anyString())).thenReturn(-1L);
+        SeleniumActions actions = new SeleniumActions(jsDriver);
+
+        for (int i = 0; i < 10; i++) {
+            actions.getTitle();
+        }
+
+        verify((JavascriptExecutor) jsDriver, times(1)).executeScript(anyString());
+        verify(jsDriver, times(1)).getTitle();
+        assertEquals(9, actions.getPageCache().getHits());
+    }
+
+    /**
+     * Without -Dpage.cache.mutationTracking=true no script runs at all.
+     */
+    @Test
+    public void testMutationTrackingIsOffByDefault() {
+        WebDriver jsDriver = javascriptDriver();
+        SeleniumActions actions = new SeleniumActions(jsDriver);
+
+        for (int i = 0; i < 5; i++) {
+            actions.getTitle();
+        }
+
+        verify((JavascriptExecutor) jsDriver, never()).executeScript(anyString());
+        verify(jsDriver, times(1)).getTitle();
+    }
+
+    /**
+     * A quit driver's cache is dropped.
+     */
+    @Test
+    public void testEvictDropsTheDriverCache() {
+        PageStateCache cache = PageStateCache.forDriver(driver);
+
+        PageStateCache.evict(driver);
+
+        assertNotSame(cache, PageStateCache.forDriver(driver));
+    }
+
+    private static WebDriver javascriptDriver() {
+        WebDriver jsDriver = Mockito.mock(WebDriver.class, Mockito.withSettings().extraInterfaces(JavascriptExecutor.class));
+        when(jsDriver.getTitle()).thenReturn("Google");
+        return jsDriver;
+    }
+}
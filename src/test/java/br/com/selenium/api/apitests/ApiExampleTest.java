@@ -1,88 +1,108 @@
 package br.com.selenium.api.apitests;
 
-import com.google.common.collect.ImmutableList;
-import com.google.genai.Client;
-import com.google.genai.ResponseStream;
-import com.google.genai.types.*;
-import com.google.gson.Gson;
+import br.com.selenium.api.json.JsonStreamAssert;
+import br.com.selenium.api.server.ApiStubServer;
 import io.qameta.allure.Description;
 import io.qameta.allure.Feature;
 import io.qameta.allure.Story;
 import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
 import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
-import org.mockito.Mockito;
-
-import java.util.List;
-
 
 import static org.junit.Assert.assertEquals;
-import static org.mockito.Mockito.when;
+import static org.junit.Assert.assertTrue;
 
 @Feature("API Testing")
 public class ApiExampleTest {
 
+    private RequestSpecification api;
+
     @Before
     public void setup() {
-        RestAssured.baseURI = "http://localhost:8080"; // Base URI for API tests
+        // Requests go through the HTTP stack to the in-process stub (fixtures in stubs/users.json)
+        api = RestAssured.given().baseUri(ApiStubServer.getInstance().getBaseUrl());
+    }
+
+    @After
+    public void tearDown() {
+        // Routes defined in code would otherwise answer the following tests
+        ApiStubServer.getInstance().reset();
     }
 
     @Test
     @Story("Get User by ID")
-    @Description("Test to get a user by ID with mocked response")
+    @Description("Test to get a user by ID from the stub server")
     public void testGetUserById() {
-        // Mock the HTTP response
-        Response mockedResponse = Mockito.mock(Response.class);
-        io.restassured.response.ResponseBody mockedBody = Mockito.mock(io.restassured.response.ResponseBody.class);
-        when(mockedResponse.getStatusCode()).thenReturn(200);
-        when(mockedResponse.getBody()).thenReturn(mockedBody);
-        when(mockedBody.asString()).thenReturn("{\"id\": 1, \"name\": \"Test User\"}");
-
-        // Perform the request (this part would typically use RestAssured to hit a real endpoint)
-        // For this example, we're simulating the response directly
-        Response response = mockedResponse; // In a real scenario: RestAssured.get("/users/1");
+        Response response = api.get("/api/users/{id}", 1);
 
         assertEquals(200, response.getStatusCode());
-        assertEquals("{\"id\": 1, \"name\": \"Test User\"}", response.getBody().asString());
+        JsonStreamAssert.of(response.asInputStream())
+                .equals("$.id", "1")
+                .equals("$.name", "Test User")
+                .verify();
     }
 
     @Test
     @Story("Create New User")
-    @Description("Test to create a new user with mocked response")
+    @Description("Test to create a new user on the stub server")
     public void testCreateUser() {
-        // Mock the HTTP response
-        Response mockedResponse = Mockito.mock(Response.class);
-        io.restassured.response.ResponseBody mockedBody = Mockito.mock(io.restassured.response.ResponseBody.class);
-        when(mockedResponse.getStatusCode()).thenReturn(201);
-        when(mockedResponse.getBody()).thenReturn(mockedBody);
-        when(mockedBody.asString()).thenReturn("{\"id\": 2, \"name\": \"New User\"}");
-
-        // Perform the request (simulated)
-        Response response = mockedResponse; // In a real scenario: RestAssured.given().body("{"name": "New User"}").post("/users");
+        Response response = api.contentType(ContentType.JSON).body("{\"name\": \"New User\"}").post("/api/users");
 
         assertEquals(201, response.getStatusCode());
-        assertEquals("{\"id\": 2, \"name\": \"New User\"}", response.getBody().asString());
+        JsonStreamAssert.of(response.asInputStream())
+                .equals("$.id", "2")
+                .equals("$.name", "New User")
+                .verify();
     }
 
     @Test
     @Story("Delete User")
-    @Description("Test to delete a user with mocked response")
+    @Description("Test to delete a user on the stub server")
     public void testDeleteUser() {
-        // Mock the HTTP response
-        Response mockedResponse = Mockito.mock(Response.class);
-        io.restassured.response.ResponseBody mockedBody = Mockito.mock(io.restassured.response.ResponseBody.class);
-        when(mockedResponse.getStatusCode()).thenReturn(204);
-        when(mockedResponse.getBody()).thenReturn(mockedBody);
-        when(mockedBody.asString()).thenReturn("");
-
-        // Perform the request (simulated)
-        Response response = mockedResponse; // In a real scenario: RestAssured.delete("/users/1");
+        Response response = api.delete("/api/users/{id}", 1);
 
         assertEquals(204, response.getStatusCode());
         assertEquals("", response.getBody().asString());
     }
 
+    @Test
+    @Story("List Users")
+    @Description("Test a large user list with streaming assertions, without loading it as a String")
+    public void testListUsers() {
+        StringBuilder users = new StringBuilder("[");
+        for (int id = 1; id <= 20000; id++) {
+            users.append(id == 1 ? "" : ",").append("{\"id\": ").append(id).append(", \"email\": \"user").append(id).append("@example.com\"}");
+        }
+        ApiStubServer.getInstance().stub("GET", "/api/users").respond(200, users.append("]").toString());
+
+        JsonStreamAssert.of(api.get("/api/users").asInputStream())
+                .count("$[*]", 20000)
+                .every("$[*].email", "contains @", email -> email.contains("@"))
+                .equals("$[0].id", "1")
+                .verify();
+    }
 
-
+    @Test
+    @Story("Stub Routes")
+    @Description("Test that routes defined in code win over fixtures and unknown routes get 404")
+    public void testRoutesDefinedInCode() {
+        ApiStubServer stub = ApiStubServer.getInstance();
+        stub.setRecording(true);
+        try {
+            ApiStubServer.Route route = stub.stub("GET", "/api/users/{id}/status").respond(200, "{\"user\": {id}, \"active\": true}");
+
+            assertEquals("{\"user\": 7, \"active\": true}", api.get("/api/users/7/status").getBody().asString());
+            assertEquals(404, api.get("/api/orders").getStatusCode());
+            assertTrue(stub.getReceivedRequests().contains("GET /api/users/7/status"));
+
+            stub.unstub(route);
+            assertEquals(404, api.get("/api/users/7/status").getStatusCode());
+        } finally {
+            stub.setRecording(false);
+        }
+    }
 }
@@ -1,83 +1,114 @@
 package br.com.selenium.api.apitests;
 
-import cucumber.api.PendingException;
+import br.com.selenium.api.json.JsonStreamAssert;
+import br.com.selenium.api.server.ApiStubServer;
 import cucumber.api.java.en.Given;
 import cucumber.api.java.en.When;
 import cucumber.api.java.en.Then;
 import io.qameta.allure.Step;
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * API step definitions.
+ * Cucumber creates a new instance for every scenario, on the thread that runs it (see
+ * ParallelCucumber), so scenario state lives in instance fields and never in static ones.
+ * Requests go to the in-process ApiStubServer (fixtures in stubs/users.json).
+ */
 public class ApiSteps {
+    private final RequestSpecification api = RestAssured.given().baseUri(ApiStubServer.getInstance().getBaseUrl());
+    private Integer userId;
+    private String userName;
+    private Response response;
 
     @Given("^I have a user ID$")
     @Step("Given I have a user ID")
     public void i_have_a_user_ID() throws Throwable {
-        // Write code here that turns the phrase above into concrete actions
-        // For now, we'll just print a message and mark as pending
         System.out.println("Step: I have a user ID");
-        // throw new PendingException();
+        userId = 1;
     }
 
     @When("^I request user details$")
     @Step("When I request user details")
     public void i_request_user_details() throws Throwable {
-        // Write code here that turns the phrase above into concrete actions
         System.out.println("Step: I request user details");
-        // throw new PendingException();
+        assertNotNull("No user ID in this scenario", userId);
+        response = api.get("/api/users/{id}", userId);
     }
 
     @Then("^I should receive user information$")
     @Step("Then I should receive user information")
     public void i_should_receive_user_information() throws Throwable {
-        // Write code here that turns the phrase above into concrete actions
         System.out.println("Step: I should receive user information");
-        // throw new PendingException();
+        assertEquals(200, response.getStatusCode());
+        assertEquals(userId, response.jsonPath().get("id"));
+    }
+
+    @When("^I request user (\\d+)$")
+    @Step("When I request user {0}")
+    public void i_request_user(int id) throws Throwable {
+        userId = id;
+        response = api.get("/api/users/{id}", id);
+    }
+
+    @Then("^the user name is \"([^\"]*)\"$")
+    @Step("Then the user name is {0}")
+    public void the_user_name_is(String name) throws Throwable {
+        assertEquals(200, response.getStatusCode());
+        // Streaming assertions: jsonPath() compiles a Groovy expression on every call
+        JsonStreamAssert.of(response.asInputStream())
+                .equals("$.id", String.valueOf(userId))
+                .equals("$.name", name)
+                .verify();
     }
 
     @Given("^I have new user data$")
     @Step("Given I have new user data")
     public void i_have_new_user_data() throws Throwable {
-        // Write code here that turns the phrase above into concrete actions
         System.out.println("Step: I have new user data");
-        // throw new PendingException();
+        userName = "New User";
     }
 
     @When("^I send a request to create a user$")
     @Step("When I send a request to create a user")
     public void i_send_a_request_to_create_a_user() throws Throwable {
-        // Write code here that turns the phrase above into concrete actions
         System.out.println("Step: I send a request to create a user");
-        // throw new PendingException();
+        assertNotNull("No user data in this scenario", userName);
+        response = api.contentType(ContentType.JSON).body("{\"name\": \"" + userName + "\"}").post("/api/users");
     }
 
     @Then("^the user should be created successfully$")
     @Step("Then the user should be created successfully")
     public void the_user_should_be_created_successfully() throws Throwable {
-        // Write code here that turns the phrase above into concrete actions
         System.out.println("Step: The user should be created successfully");
-        // throw new PendingException();
+        assertEquals(201, response.getStatusCode());
+        assertEquals(userName, response.jsonPath().getString("name"));
     }
 
     @Given("^I have an existing user ID$")
     @Step("Given I have an existing user ID")
     public void i_have_an_existing_user_ID() throws Throwable {
-        // Write code here that turns the phrase above into concrete actions
         System.out.println("Step: I have an existing user ID");
-        // throw new PendingException();
+        userId = 2;
     }
 
     @When("^I send a request to delete the user$")
     @Step("When I send a request to delete the user")
     public void i_send_a_request_to_delete_the_user() throws Throwable {
-        // Write code here that turns the phrase above into concrete actions
         System.out.println("Step: I send a request to delete the user");
-        // throw new PendingException();
+        assertNotNull("No user ID in this scenario", userId);
+        response = api.delete("/api/users/{id}", userId);
     }
 
     @Then("^the user should be deleted successfully$")
     @Step("Then the user should be deleted successfully")
     public void the_user_should_be_deleted_successfully() throws Throwable {
-        // Write code here that turns the phrase above into concrete actions
         System.out.println("Step: The user should be deleted successfully");
-        // throw new PendingException();
+        assertEquals(204, response.getStatusCode());
     }
 }
@@ -0,0 +1,73 @@
+package br.com.selenium.api.apitests;
+
+import br.com.selenium.api.load.LoadGenerator;
+import br.com.selenium.api.load.LoadResult;
+import br.com.selenium.api.performance.PerformanceRecorder;
+import br.com.selenium.api.server.ApiStubServer;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+import io.qameta.allure.Allure;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Load-generation steps: a performance smoke test on top of the functional API steps.
+ * Relative paths go to the in-process ApiStubServer; absolute URLs are used as they are.
+ * The results (throughput, p50/p95/p99/max, errors) are attached to the Allure report,
+ * and p50/p99 are recorded as benchmarks for the PerformanceGate.
+ */
+public class LoadSteps {
+    private LoadResult result;
+
+    @When("^I send (\\d+) (GET|POST|PUT|DELETE) (\\S+) requests with concurrency (\\d+)$")
+    public void i_send_requests_with_concurrency(int requests, String method, String path, int concurrency) {
+        run(method + " " + path, new LoadGenerator(method, url(path)).requests(requests).concurrency(concurrency));
+    }
+
+    @When("^I send (\\d+) (GET|POST|PUT|DELETE) (\\S+) requests at (\\d+) requests per second with concurrency (\\d+)$")
+    public void i_send_requests_at_rate(int requests, String method, String path, int rate, int concurrency) {
+        run(method + " " + path + " at " + rate + " req/s", new LoadGenerator(method, url(path)).requests(requests).rate(rate).concurrency(concurrency));
+    }
+
+    @Then("^the p(50|95|99) latency is below (\\d+) ms$")
+    public void the_percentile_latency_is_below(int percentile, int millis) {
+        double latency = result().percentileMillis(percentile);
+        assertTrue(String.format("p%d latency %.2f ms is not below %d ms", percentile, latency, millis), latency < millis);
+    }
+
+    @Then("^the max latency is below (\\d+) ms$")
+    public void the_max_latency_is_below(int millis) {
+        assertTrue(String.format("Max latency %.2f ms is not below %d ms", result().getMaxMillis(), millis),
+                result().getMaxMillis() < millis);
+    }
+
+    @Then("^the throughput is at least (\\d+) requests per second$")
+    public void the_throughput_is_at_least(int requestsPerSecond) {
+        assertTrue(String.format("Throughput %.1f req/s is below %d req/s", result().getThroughput(), requestsPerSecond),
+                result().getThroughput() >= requestsPerSecond);
+    }
+
+    @Then("^the error rate is below (\\d+(?:\\.\\d+)?)%$")
+    public void the_error_rate_is_below(double percent) {
+        assertTrue(String.format("Error rate %.2f%% is not below %s%%", result().getErrorRate(), percent),
+                result().getErrorRate() < percent);
+    }
+
+    private void run(String name, LoadGenerator generator) {
+        result = generator.run();
+        Allure.addAttachment("Load test results", "text/plain", result.report());
+        // Latency percentiles feed the PerformanceGate baselines
+        PerformanceRecorder.recordBenchmark(name + " p50", result.percentileMillis(50));
+        PerformanceRecorder.recordBenchmark(name + " p99", result.percentileMillis(99));
+    }
+
+    private LoadResult result() {
+        assertNotNull("No load test was run in this scenario", result);
+        return result;
+    }
+
+    private static String url(String path) {
+        return path.startsWith("http") ? path : ApiStubServer.getInstance().getBaseUrl() + path;
+    }
+}
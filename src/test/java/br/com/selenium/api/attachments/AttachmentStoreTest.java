@@ -0,0 +1,75 @@
+package br.com.selenium.api.attachments;
+
+import br.com.selenium.api.reporting.BufferedResultsWriter;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit test class for AttachmentStore.
+ * Verifies that static files are copied to the results directory once and then referenced.
+ */
+public class AttachmentStoreTest {
+
+    private Path resultsDirectory;
+    private AttachmentStore store;
+
+    @Before
+    public void setUp() throws IOException {
+        resultsDirectory = Files.createTempDirectory("allure-results");
+        store = new AttachmentStore(resultsDirectory);
+    }
+
+    /**
+     * A static file attached by every scenario is written once.
+     */
+    @Test
+    public void testStaticFileIsCopiedOnce() throws IOException {
+        Path file = Files.createTempFile("video", ".mp4");
+        Files.write(file, "conteúdo do vídeo".getBytes(StandardCharsets.UTF_8));
+
+        String first = store.storeFile(file, "mp4");
+        String second = store.storeFile(file, "mp4");
+
+        assertEquals(first, second);
+        assertEquals(AttachmentStore.sourceFor(AttachmentStore.sha256(Files.readAllBytes(file)), "mp4"), first);
+        assertArrayEquals(Files.readAllBytes(file), Files.readAllBytes(resultsDirectory.resolve(first)));
+        try (Stream<Path> stored = Files.list(resultsDirectory)) {
+            assertEquals(1, stored.count());
+        }
+    }
+
+    /**
+     * Identical content from different files shares one attachment file.
+     */
+    @Test
+    public void testIdenticalFilesShareOneAttachment() throws IOException {
+        Path first = Files.createTempFile("image", ".png");
+        Path second = Files.createTempFile("copy", ".png");
+        Files.write(first, new byte[]{1, 2, 3});
+        Files.write(second, new byte[]{1, 2, 3});
+
+        assertEquals(store.storeFile(first, "png"), store.storeFile(second, "png"));
+        try (Stream<Path> stored = Files.list(resultsDirectory)) {
+            assertEquals(1, stored.count());
+        }
+    }
+
+    /**
+     * An attachment another JVM stored gzipped is not written again.
+     */
+    @Test
+    public void testGzippedAttachmentIsNotClaimedAgain() throws IOException {
+        String source = AttachmentStore.sourceFor("abc", "png");
+        Files.write(resultsDirectory.resolve(source + BufferedResultsWriter.GZIP_SUFFIX), new byte[]{1});
+
+        assertFalse(store.claim(source, 3));
+    }
+}
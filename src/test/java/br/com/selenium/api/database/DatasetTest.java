@@ -0,0 +1,71 @@
+package br.com.selenium.api.database;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DatasetTest {
+
+    @BeforeClass
+    public static void createTable() throws Exception {
+        DatabaseManager.executeScript("CREATE TABLE IF NOT EXISTS dataset_test AS "
+                + "SELECT X AS id, 'termo ' || X AS termo, CAST(NULL AS VARCHAR) AS vazio FROM SYSTEM_RANGE(1, 50000)");
+    }
+
+    @AfterClass
+    public static void dropTable() throws Exception {
+        DatabaseManager.executeScript("DROP TABLE IF EXISTS dataset_test");
+        System.clearProperty("dataset.page.size");
+        System.clearProperty("dataset.dataset_pares.query");
+    }
+
+    @Test
+    public void testReadsEveryRowPageByPage() {
+        System.setProperty("dataset.page.size", "1000");
+        long rows = 0;
+        for (List<String> row : Dataset.of("dataset_test", Arrays.asList("termo", "id", "vazio"))) {
+            rows++;
+            if (rows == 1) {
+                assertEquals(Arrays.asList("termo 1", "1", ""), row);
+            }
+        }
+
+        assertEquals(50000, rows);
+    }
+
+    @Test
+    public void testConfiguredQuery() {
+        System.setProperty("dataset.page.size", "7");
+        System.setProperty("dataset.dataset_pares.query", "SELECT id AS numero FROM dataset_test WHERE MOD(id, 2) = 0 AND id <= 20 ORDER BY id DESC");
+
+        Iterator<List<String>> rows = Dataset.of("dataset_pares", Arrays.asList("numero")).iterator();
+        for (int expected = 20; expected >= 2; expected -= 2) {
+            assertTrue(rows.hasNext());
+            assertEquals(String.valueOf(expected), rows.next().get(0));
+        }
+        assertFalse(rows.hasNext());
+    }
+
+    @Test
+    public void testFixtureCreatesTable() {
+        long rows = 0;
+        for (List<String> row : Dataset.of("usuarios", Arrays.asList("id", "nome"))) {
+            assertEquals("Test User", row.get(1));
+            rows++;
+        }
+        assertEquals(50, rows);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsInvalidNames() {
+        Dataset.of("usuarios; DROP TABLE usuarios", Arrays.asList("id"));
+    }
+}
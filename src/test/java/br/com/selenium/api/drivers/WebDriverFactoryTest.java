@@ -0,0 +1,52 @@
+package br.com.selenium.api.drivers;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit test class for WebDriverFactory.
+ * Verifies that scenarios tagged as browserless never start a browser.
+ */
+public class WebDriverFactoryTest {
+
+    private final WebDriverFactory factory = WebDriverFactory.getInstance();
+
+    @After
+    public void tearDown() {
+        factory.configureFor(Collections.emptyList());
+    }
+
+    /**
+     * An @api scenario gets no driver, and asking for one fails instead of starting a browser.
+     */
+    @Test
+    public void testBrowserlessScenarioNeverStartsDriver() {
+        factory.configureFor(Arrays.asList("@api", "@smoke"));
+
+        assertTrue(factory.isBrowserless());
+        assertNull(factory.getCurrentDriver());
+        try {
+            factory.getDriver();
+            fail("Expected no driver for an @api scenario");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("@api"));
+        }
+        assertNull(factory.getCurrentDriver());
+    }
+
+    /**
+     * Other scenarios are not browserless, but still start no browser until the driver is used.
+     */
+    @Test
+    public void testUiScenarioStartsDriverLazily() {
+        factory.configureFor(Collections.singletonList("@htmlunit"));
+
+        assertFalse(factory.isBrowserless());
+        assertNull(factory.getCurrentDriver());
+    }
+}
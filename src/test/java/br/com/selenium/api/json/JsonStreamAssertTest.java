@@ -0,0 +1,99 @@
+package br.com.selenium.api.json;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class JsonStreamAssertTest {
+
+    @Test
+    public void testPathsOnSmallDocument() {
+        String json = "{\"page\": 1, \"users\": [{\"id\": 1, \"name\": \"Ana\", \"tags\": [\"a\"]},"
+                + " {\"id\": 2, \"name\": null, \"tags\": []}]}";
+
+        JsonStreamAssert.of(stream(json))
+                .equals("$.page", "1")
+                .count("$.users[*]", 2)
+                .count("$.users[*].tags[*]", 1)
+                .equals("$.users[0].name", "Ana")
+                .equals("$.users[1].name", null)
+                .every("$.users.*.id", "positive", id -> Integer.parseInt(id) > 0)
+                .verify();
+        assertFails(JsonStreamAssert.of(stream(json)).exists("$.total"), "$.total: exists failed, 0 value(s) matched");
+        assertFails(JsonStreamAssert.of(stream(json)).count("$.users[*]", 1), "more values at $.users[1]");
+        assertFails(JsonStreamAssert.of(stream(json)).every("$.users[*]", "scalar", value -> true), "$.users[0] is an object");
+    }
+
+    @Test
+    public void testLargeBodyInOnePass() {
+        JsonStreamAssert.of(new UsersStream(200_000, -1))
+                .count("$[*]", 200_000)
+                .every("$[*].id", "is a number", id -> id.matches("\\d+"))
+                .every("$[*].email", "contains @", email -> email.contains("@"))
+                .equals("$[199999].id", "199999")
+                .verify();
+    }
+
+    @Test
+    public void testStopsAtFirstFailure() {
+        UsersStream users = new UsersStream(200_000, 10);
+
+        assertFails(JsonStreamAssert.of(users).every("$[*].email", "contains @", email -> email.contains("@")),
+                "$[10].email is user10.example.com");
+        assertTrue("Read " + users.read + " bytes", users.read < 64 * 1024);
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertFails(JsonStreamAssert expectations, String message) {
+        try {
+            expectations.verify();
+        } catch (AssertionError e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(message));
+            return;
+        }
+        fail("Expected failure: " + message);
+    }
+
+    /**
+     * A JSON array of users generated while it is read, never held in memory.
+     */
+    private static class UsersStream extends InputStream {
+        private final int users;
+        private final int invalid;
+        private byte[] chunk = "[".getBytes(StandardCharsets.UTF_8);
+        private int position;
+        private int next;
+        private long read;
+
+        private UsersStream(int users, int invalid) {
+            this.users = users;
+            this.invalid = invalid;
+        }
+
+        @Override
+        public int read() {
+            if (position == chunk.length) {
+                if (next > users) {
+                    return -1;
+                }
+                String user = next == users ? "]"
+                        : String.format("%s{\"id\": %d, \"name\": \"User %d\", \"email\": \"user%d%sexample.com\"}",
+                        next == 0 ? "" : ",", next, next, next, next == invalid ? "." : "@");
+                chunk = user.getBytes(StandardCharsets.UTF_8);
+                position = 0;
+                next++;
+            }
+            read++;
+            return chunk[position++];
+        }
+    }
+}
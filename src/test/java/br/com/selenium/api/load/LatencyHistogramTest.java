@@ -0,0 +1,35 @@
+package br.com.selenium.api.load;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketsCoverTheirValues() {
+        for (long micros = 0; micros < 10_000_000; micros += 1 + micros / 50) {
+            int bucket = LatencyHistogram.bucketOf(micros);
+            assertTrue(micros + " above its bucket", micros <= LatencyHistogram.upperBoundOf(bucket));
+            assertTrue(micros + " below its bucket", bucket == 0 || micros > LatencyHistogram.upperBoundOf(bucket - 1));
+        }
+    }
+
+    @Test
+    public void testPercentilesWithinPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long millis = 1; millis <= 1000; millis++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000_000, histogram.getMaxMicros());
+        assertEquals(500_000, histogram.percentileMicros(50), 500_000 * 0.04);
+        assertEquals(990_000, histogram.percentileMicros(99), 990_000 * 0.04);
+        assertEquals(1_000_000, histogram.percentileMicros(100));
+        assertEquals(0, new LatencyHistogram().percentileMicros(99));
+    }
+}
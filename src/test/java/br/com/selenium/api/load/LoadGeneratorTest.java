@@ -0,0 +1,35 @@
+package br.com.selenium.api.load;
+
+import br.com.selenium.api.server.ApiStubServer;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LoadGeneratorTest {
+
+    @Test
+    public void testLoadAgainstStub() {
+        String url = ApiStubServer.getInstance().getBaseUrl() + "/api/users/3";
+
+        LoadResult closed = new LoadGenerator("GET", url).requests(200).concurrency(4).run();
+        LoadResult open = new LoadGenerator("GET", url).requests(50).rate(500).concurrency(4).run();
+
+        assertEquals(200, closed.getRequests());
+        assertEquals(0, closed.getErrors());
+        assertEquals(50, open.getRequests());
+        assertEquals(0, open.getErrors());
+        assertTrue(closed.getThroughput() > 0);
+        assertTrue(closed.report().contains("Latency p99"));
+    }
+
+    @Test
+    public void testPostWithoutBodySendsAnEmptyOne() {
+        String url = ApiStubServer.getInstance().getBaseUrl() + "/api/users";
+
+        LoadResult result = new LoadGenerator("post", url).requests(10).concurrency(2).run();
+
+        assertEquals(10, result.getRequests());
+        assertEquals(0, result.getErrors());
+    }
+}
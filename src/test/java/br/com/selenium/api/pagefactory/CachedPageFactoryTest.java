@@ -0,0 +1,119 @@
+package br.com.selenium.api.pagefactory;
+
+import br.com.selenium.api.actions.PageStateCache;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.openqa.selenium.By;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.FindBy;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * JUnit test class for CachedPageFactory.
+ * Verifies that page object elements are located once and recovered when stale.
+ */
+public class CachedPageFactoryTest {
+
+    public static class SamplePage {
+        @FindBy(name = "q")
+        private WebElement searchBox;
+
+        @FindBy(tagName = "li")
+        private List<WebElement> items;
+    }
+
+    private WebDriver driver;
+    private WebElement element;
+    private SamplePage page;
+
+    @Before
+    public void setUp() {
+        driver = Mockito.mock(WebDriver.class);
+        element = Mockito.mock(WebElement.class);
+        when(driver.findElement(By.name("q"))).thenReturn(element);
+        when(element.getAttribute("value")).thenReturn("Allure");
+
+        page = new SamplePage();
+        CachedPageFactory.initElements(driver, page);
+    }
+
+    /**
+     * Repeated use of an element on the same page locates it only once.
+     */
+    @Test
+    public void testElementIsLocatedOnce() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals("Allure", page.searchBox.getAttribute("value"));
+        }
+
+        verify(driver, times(1)).findElement(By.name("q"));
+    }
+
+    /**
+     * A new page version (e.g. the page was re-rendered) locates the element again.
+     */
+    @Test
+    public void testNewPageVersionLocatesAgain() {
+        page.searchBox.getAttribute("value");
+        PageStateCache.forDriver(driver).invalidate("navigation");
+        page.searchBox.click();
+
+        verify(driver, times(2)).findElement(By.name("q"));
+        verify(element, times(1)).click();
+    }
+
+    /**
+     * Resetting the statistics keeps counting the lookups of existing page objects.
+     */
+    @Test
+    public void testStatsAreResetInPlace() {
+        ElementLookupStats stats = ElementLookupStats.forPageObject(SamplePage.class.getSimpleName());
+        page.searchBox.getAttribute("value");
+        ElementLookupStats.logAndReset();
+
+        page.searchBox.getAttribute("value");
+
+        assertSame(stats, ElementLookupStats.forPageObject(SamplePage.class.getSimpleName()));
+        assertEquals(1, stats.getHits());
+    }
+
+    /**
+     * A stale cached element is located again and the call is retried.
+     */
+    @Test
+    public void testStaleElementIsLocatedAgain() {
+        WebElement stale = Mockito.mock(WebElement.class);
+        doThrow(new StaleElementReferenceException("stale")).when(stale).click();
+        when(driver.findElement(By.name("q"))).thenReturn(stale, element);
+
+        page.searchBox.click();
+
+        verify(driver, times(2)).findElement(By.name("q"));
+        verify(element, times(1)).click();
+    }
+
+    /**
+     * Field metadata is computed once per class and list fields are bound too.
+     */
+    @Test
+    public void testMetadataIsComputedOncePerClass() {
+        when(driver.findElements(By.tagName("li"))).thenReturn(Arrays.asList(element, element));
+
+        assertSame(PageObjectMetadata.forClass(SamplePage.class), PageObjectMetadata.forClass(SamplePage.class));
+        assertEquals(2, PageObjectMetadata.forClass(SamplePage.class).getFieldCount());
+        assertEquals(2, page.items.size());
+        assertEquals(2, page.items.size());
+        verify(driver, times(1)).findElements(By.tagName("li"));
+    }
+}
@@ -0,0 +1,58 @@
+package br.com.selenium.api.performance;
+
+import br.com.selenium.api.performance.PerformanceGate.Comparison;
+import br.com.selenium.api.performance.PerformanceRecorder.Metric;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PerformanceGateTest {
+    private static final Metric STEP = new Metric("ApiTestRunner", Metric.Kind.STEP, "ApiSteps.i_request_user(int)");
+    private static final List<Double> BASELINE = Arrays.asList(100.0, 104.0, 98.0, 102.0, 96.0);
+
+    @Test
+    public void testComparesMedianWithBaseline() {
+        assertEquals(Comparison.Status.OK, compare(Arrays.asList(101.0, 500.0, 99.0), BASELINE).getStatus());
+        assertEquals(Comparison.Status.REGRESSED, compare(Arrays.asList(140.0, 150.0, 145.0), BASELINE).getStatus());
+        assertEquals(Comparison.Status.IMPROVED, compare(Arrays.asList(40.0, 45.0), BASELINE).getStatus());
+
+        Comparison regressed = compare(Collections.singletonList(150.0), BASELINE);
+        assertEquals(100.0, regressed.getBaselineMillis(), 0.001);
+        assertEquals(50.0, regressed.getChangePercent(), 0.001);
+    }
+
+    @Test
+    public void testNoiseOnFastStepsIsIgnored() {
+        // Three times slower, but only 10 ms: below performance.gate.min.millis
+        assertEquals(Comparison.Status.OK, compare(Collections.singletonList(15.0), Arrays.asList(5.0, 5.0, 5.0)).getStatus());
+        // Noisy history widens the tolerance
+        assertEquals(Comparison.Status.OK, compare(Collections.singletonList(260.0), Arrays.asList(100.0, 300.0, 120.0, 280.0)).getStatus());
+    }
+
+    @Test
+    public void testNeedsEnoughHistory() {
+        assertEquals(Comparison.Status.NEW, compare(Collections.singletonList(500.0), Arrays.asList(100.0, 100.0)).getStatus());
+        assertEquals(Comparison.Status.NEW, compare(Collections.singletonList(500.0), Collections.emptyList()).getStatus());
+    }
+
+    @Test
+    public void testRecorderDrainsSamples() {
+        PerformanceRecorder.drain("ApiTestRunner");
+        PerformanceRecorder.recordBenchmark("GET /api/users/1 p99", 12.5);
+        PerformanceRecorder.recordBenchmark("GET /api/users/1 p99", 13.5);
+
+        Map<Metric, List<Double>> samples = PerformanceRecorder.drain("ApiTestRunner");
+        assertEquals(Arrays.asList(12.5, 13.5), samples.get(new Metric("ApiTestRunner", Metric.Kind.BENCHMARK, "GET /api/users/1 p99")));
+        assertTrue(PerformanceRecorder.drain("ApiTestRunner").isEmpty());
+    }
+
+    private static Comparison compare(List<Double> samples, List<Double> baseline) {
+        return new Comparison(STEP, samples, baseline);
+    }
+}
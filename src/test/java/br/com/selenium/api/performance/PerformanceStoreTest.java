@@ -0,0 +1,45 @@
+package br.com.selenium.api.performance;
+
+import br.com.selenium.api.performance.PerformanceGate.Comparison;
+import br.com.selenium.api.performance.PerformanceRecorder.Metric;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+
+public class PerformanceStoreTest {
+    private static final Metric UI_STEP = new Metric("CucumberRunner", Metric.Kind.STEP, "StepsDefinitions.open()");
+    private static final Metric API_STEP = new Metric("ApiTestRunner", Metric.Kind.STEP, "StepsDefinitions.open()");
+
+    @Before
+    public void setUp() {
+        // Never write test baselines to .test-history/performance
+        System.setProperty("performance.store.url", "jdbc:h2:mem:performance-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty("performance.store.url");
+    }
+
+    @Test
+    public void testBaselinesArePerRunner() throws SQLException {
+        PerformanceStore.save("run-1", Arrays.asList(comparison(UI_STEP, 100.0), comparison(API_STEP, 5.0)));
+        PerformanceStore.save("run-2", Collections.singletonList(comparison(UI_STEP, 110.0)));
+
+        assertEquals(Arrays.asList(110.0, 100.0), PerformanceStore.history("CucumberRunner", 10).get(UI_STEP));
+        assertEquals(Collections.singletonList(110.0), PerformanceStore.history("CucumberRunner", 1).get(UI_STEP));
+        assertEquals(Collections.singletonMap(API_STEP, Collections.singletonList(5.0)),
+                PerformanceStore.history("ApiTestRunner", 10));
+    }
+
+    private static Comparison comparison(Metric metric, double millis) {
+        return new Comparison(metric, Collections.singletonList(millis), Collections.emptyList());
+    }
+}
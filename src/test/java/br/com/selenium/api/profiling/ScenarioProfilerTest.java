@@ -0,0 +1,60 @@
+package br.com.selenium.api.profiling;
+
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ScenarioProfilerTest {
+
+    @Test
+    public void testSummarizesTheScenarioWindow() throws Exception {
+        JfrRecording recording = JfrRecording.start("profile", Duration.ofMinutes(1));
+        Path file = Files.createTempDirectory("profiler").resolve("scenario.jfr");
+        try {
+            Instant begin = Instant.now();
+            long checksum = busyAllocating(1500);
+            Instant end = Instant.now();
+
+            recording.dump(file, Duration.ofSeconds(3));
+            JfrSummary summary = JfrSummary.of(file, begin, end, Thread.currentThread().getId(), 10);
+            String text = summary.format("Busy scenario", 1500);
+
+            assertTrue("checksum " + checksum, summary.getScenarioSamples() > 0);
+            assertTrue(summary.getAllocatedBytes() > 0);
+            assertTrue(text, text.contains("Scenario: Busy scenario"));
+            assertTrue(text, text.contains(ScenarioProfilerTest.class.getName() + ".busyAllocating"));
+            assertTrue(text, text.contains("GC pauses:"));
+        } finally {
+            recording.close();
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(file.getParent());
+        }
+    }
+
+    @Test
+    public void testFastScenariosAreNotProfiled() {
+        ScenarioProfiler profiler = ScenarioProfiler.getInstance();
+        assertFalse(profiler.finish(profiler.start(), "Fast scenario"));
+    }
+
+    private static long busyAllocating(long millis) {
+        long deadline = System.nanoTime() + millis * 1_000_000;
+        long checksum = 0;
+        while (System.nanoTime() < deadline) {
+            List<String> values = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                values.add(Integer.toHexString(i * 31));
+            }
+            checksum += values.hashCode();
+        }
+        return checksum;
+    }
+}
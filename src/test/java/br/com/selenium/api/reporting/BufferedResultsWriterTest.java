@@ -0,0 +1,100 @@
+package br.com.selenium.api.reporting;
+
+import io.qameta.allure.model.TestResult;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit test class for BufferedResultsWriter.
+ * Verifies batching, atomic publication and attachment compression.
+ */
+public class BufferedResultsWriterTest {
+
+    private Path directory;
+    private BufferedResultsWriter writer;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("allure-results");
+    }
+
+    @After
+    public void tearDown() {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    /**
+     * Results are kept in memory until the batch is full, then published without temporary files.
+     */
+    @Test
+    public void testResultsArePublishedInBatches() throws IOException {
+        writer = new BufferedResultsWriter(directory, 3, 1024 * 1024, 0, 0);
+
+        writer.write(new TestResult().withUuid("a").withName("Cenário A"));
+        writer.write(new TestResult().withUuid("b").withName("Cenário B"));
+        assertTrue(files().isEmpty());
+
+        writer.write(new TestResult().withUuid("c").withName("Cenário C"));
+        writer.flush();
+
+        assertEquals(3, files().size());
+        assertTrue(files().contains("a-result.json"));
+        assertTrue(new String(Files.readAllBytes(directory.resolve("b-result.json")), "UTF-8").contains("Cenário B"));
+    }
+
+    /**
+     * Attachments above the threshold are stored gzipped for the shard merge.
+     */
+    @Test
+    public void testLargeAttachmentsAreGzipped() throws IOException {
+        writer = new BufferedResultsWriter(directory, 50, 1024 * 1024, 100, 0);
+        writer.addListener(new ShardMerger(directory, Files.createTempDirectory("allure-results")));
+        byte[] large = new byte[1000];
+
+        writer.write("small-attachment.txt", new ByteArrayInputStream("pequeno".getBytes("UTF-8")));
+        writer.write("large-attachment.bin", new ByteArrayInputStream(large));
+        writer.flush();
+
+        assertTrue(files().contains("small-attachment.txt"));
+        assertTrue(files().contains("large-attachment.bin" + BufferedResultsWriter.GZIP_SUFFIX));
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(directory.resolve("large-attachment.bin.gz")))) {
+            assertArrayEquals(large, IOUtils.toByteArray(in));
+        }
+    }
+
+    /**
+     * Without a listener that decompresses them, attachments are never gzipped.
+     */
+    @Test
+    public void testAttachmentsAreNotGzippedWithoutConsumer() throws IOException {
+        writer = new BufferedResultsWriter(directory, 50, 1024 * 1024, 100, 0);
+
+        writer.write("large-attachment.bin", new ByteArrayInputStream(new byte[1000]));
+        writer.flush();
+
+        assertEquals(1, files().size());
+        assertTrue(files().contains("large-attachment.bin"));
+    }
+
+    private List<String> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString()).collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package br.com.selenium.api.reporting;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit test class for ResultsUploader.
+ * Uses a local stand-in for the allure-docker-service send-results API.
+ */
+public class ResultsUploaderTest {
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private final List<String> projects = new CopyOnWriteArrayList<>();
+    private final Map<String, String> received = new ConcurrentHashMap<>();
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("allure-results");
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/allure-docker-service/send-results", exchange -> {
+            requests.incrementAndGet();
+            projects.add(exchange.getRequestURI().getQuery());
+            int status = 200;
+            if (failuresLeft.getAndDecrement() > 0) {
+                status = 503;
+            } else {
+                JsonNode body = new ObjectMapper().readTree(IOUtils.toByteArray(exchange.getRequestBody()));
+                for (JsonNode result : body.get("results")) {
+                    received.put(result.get("file_name").asText(),
+                            new String(Base64.getDecoder().decode(result.get("content_base64").asText()), StandardCharsets.UTF_8));
+                }
+            }
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    /**
+     * Files are sent once, gzipped attachments decompressed, and a failed batch is retried.
+     */
+    @Test
+    public void testFilesAreUploadedOnceWithRetry() throws IOException {
+        failuresLeft.set(1);
+        ResultsUploader uploader = new ResultsUploader("http://localhost:" + server.getAddress().getPort() + "/",
+                "demo", 10, 2, 10, 0, false);
+
+        Path result = write("a-result.json", "{\"name\":\"Cenário\"}".getBytes(StandardCharsets.UTF_8));
+        Path attachment = write("b-attachment.txt.gz", gzip("anexo"));
+        uploader.published(result);
+        uploader.published(attachment);
+        uploader.published(result);
+        uploader.close();
+
+        assertEquals(2, requests.get());
+        assertEquals("project_id=demo", projects.get(0));
+        assertEquals(2, received.size());
+        assertEquals("{\"name\":\"Cenário\"}", received.get("a-result.json"));
+        assertEquals("anexo", received.get("b-attachment.txt"));
+    }
+
+    private Path write(String name, byte[] content) throws IOException {
+        return Files.write(directory.resolve(name), content);
+    }
+
+    private static byte[] gzip(String content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,86 @@
+package br.com.selenium.api.reporting;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit test class for ShardMerger.
+ * Verifies that worker shards are merged with deduplicated attachments and rewritten references.
+ */
+public class ShardMergerTest {
+
+    private Path results;
+    private Path shards;
+
+    @Before
+    public void setUp() throws IOException {
+        results = Files.createTempDirectory("allure-results");
+        shards = Files.createTempDirectory("allure-shards");
+    }
+
+    /**
+     * Identical attachments are kept once, colliding names are renamed and references follow.
+     */
+    @Test
+    public void testShardsAreMergedWithDeduplication() throws IOException {
+        Path first = shard("1");
+        write(first, "log-attachment.txt", "mesmo conteúdo");
+        write(first, "a-result.json", result("a", "log-attachment.txt"));
+        write(first, "img-attachment.txt", "primeiro");
+
+        Path second = shard("2");
+        write(second, "copy-attachment.txt", "mesmo conteúdo");
+        write(second, "b-result.json", result("b", "copy-attachment.txt"));
+        write(second, "img-attachment.txt", "segundo");
+        write(second, "c-result.json", result("c", "img-attachment.txt"));
+        Files.write(second.resolve("big-attachment.txt.gz"), gzip("compactado"));
+
+        new ShardMerger(first, results).merge();
+        new ShardMerger(second, results).merge();
+
+        assertFalse(Files.exists(first));
+        assertFalse(Files.exists(second));
+        assertFalse(Files.exists(results.resolve("copy-attachment.txt")));
+        assertTrue(read("b-result.json").contains("\"source\":\"log-attachment.txt\""));
+        assertEquals("segundo", read("2-img-attachment.txt"));
+        assertTrue(read("c-result.json").contains("\"source\":\"2-img-attachment.txt\""));
+        assertEquals("primeiro", read("img-attachment.txt"));
+        assertEquals("compactado", read("big-attachment.txt"));
+        assertTrue(read("a-result.json").contains("\"source\":\"log-attachment.txt\""));
+    }
+
+    private Path shard(String worker) throws IOException {
+        return Files.createDirectories(shards.resolve(worker));
+    }
+
+    private static String result(String uuid, String source) {
+        return "{\"uuid\":\"" + uuid + "\",\"name\":\"Cenário " + uuid + "\",\"attachments\":[{\"name\":\"log\",\"source\":\""
+                + source + "\",\"type\":\"text/plain\"}]}";
+    }
+
+    private static void write(Path directory, String name, String content) throws IOException {
+        Files.write(directory.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String read(String name) throws IOException {
+        return new String(Files.readAllBytes(results.resolve(name)), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gzip(String content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,77 @@
+package br.com.selenium.api.rerun;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit test class for FailedScenarios.
+ * Verifies that the failures of the previous run are read from both report formats.
+ */
+public class FailedScenariosTest {
+
+    private static void write(Path file, String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String result(String scenario, String status, long stop) {
+        return "{\"name\":\"" + scenario + "\",\"status\":\"" + status + "\",\"stop\":" + stop + ",\"labels\":["
+                + "{\"name\":\"feature\",\"value\":\"Demo Allure\"},{\"name\":\"story\",\"value\":\"" + scenario + "\"}]}";
+    }
+
+    /**
+     * Test cases with a failure or an error are read from the JUnit report.
+     */
+    @Test
+    public void testFailuresFromJunitReport() throws IOException {
+        Path report = Files.createTempFile("cucumber", ".xml");
+        write(report, "<testsuite>"
+                + "<testcase classname=\"Demo Allure\" name=\"Pesquisa Básica\"><failure message=\"x\"/></testcase>"
+                + "<testcase classname=\"Demo Allure\" name=\"Pesquisa por Notícias\"><error message=\"x\"/></testcase>"
+                + "<testcase classname=\"Demo Allure\" name=\"Pesquisa por Imagens\"/>"
+                + "</testsuite>");
+
+        assertEquals(2, FailedScenarios.fromJunitReport(report).size());
+        assertTrue(FailedScenarios.fromJunitReport(report).contains("demo-allure;pesquisa-básica"));
+    }
+
+    /**
+     * A failure in a later row of an outline reruns the outline; numbered scenario names stay as they are.
+     */
+    @Test
+    public void testOutlineRowsFromJunitReport() throws IOException {
+        Path report = Files.createTempFile("cucumber", ".xml");
+        write(report, "<testsuite>"
+                + "<testcase classname=\"Demo Allure\" name=\"Pesquisa no Google\"/>"
+                + "<testcase classname=\"Demo Allure\" name=\"Pesquisa no Google 2\"/>"
+                + "<testcase classname=\"Demo Allure\" name=\"Pesquisa no Google 3\"><failure message=\"x\"/></testcase>"
+                + "<testcase classname=\"Demo Allure\" name=\"Passo 2\"><error message=\"x\"/></testcase>"
+                + "</testsuite>");
+
+        assertEquals(new HashSet<>(Arrays.asList("demo-allure;pesquisa-no-google", "demo-allure;passo-2")),
+                FailedScenarios.fromJunitReport(report));
+    }
+
+    /**
+     * Only the latest Allure result of a scenario counts, and step results are ignored.
+     */
+    @Test
+    public void testFailuresFromAllureResults() throws IOException {
+        Path results = Files.createTempDirectory("allure-results");
+        write(results.resolve("1-result.json"), result("Pesquisa Básica", "failed", 1));
+        write(results.resolve("2-result.json"), result("Pesquisa Básica", "passed", 2));
+        write(results.resolve("3-result.json"), result("Pesquisa por Imagens", "passed", 1));
+        write(results.resolve("4-result.json"), result("Pesquisa por Imagens", "broken", 2));
+        write(results.resolve("5-result.json"), "{\"name\":\"Given passo\",\"status\":\"failed\",\"labels\":[]}");
+
+        assertEquals(Collections.singleton("demo-allure;pesquisa-por-imagens"), FailedScenarios.fromAllureResults(results));
+    }
+}
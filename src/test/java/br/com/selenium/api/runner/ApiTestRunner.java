@@ -1,13 +1,19 @@
 package br.com.selenium.api.runner;
 
+import br.com.selenium.runner.ParallelCucumber;
 import cucumber.api.CucumberOptions;
-import cucumber.api.junit.Cucumber;
 import org.junit.runner.RunWith;
 
-@RunWith(Cucumber.class)
+/**
+ * Runs the API scenarios. They need no browser, so with -Dparallel.threads=N they run
+ * concurrently (see ParallelCucumber).
+ */
+@RunWith(ParallelCucumber.class)
 @CucumberOptions(
-        plugin = {"pretty", "html:target/cucumber-api", "junit:target/cucumber-api.xml", "io.qameta.allure.cucumberjvm.AllureCucumberJvm"},
+        plugin = {"pretty", "html:target/cucumber-api", "junit:target/cucumber-api.xml", "br.com.selenium.api.reporting.BufferedAllureCucumberJvm",
+                "br.com.selenium.api.performance.PerformanceRecorder"},
         glue = {"br.com.selenium.api.apitests"},
-        features = "src/test/resources/features/api-demo.feature")
+        features = {"src/test/resources/features/api-demo.feature", "src/test/resources/features/api-load.feature",
+                "src/test/resources/features/api-dataset.feature"})
 public class ApiTestRunner {
 }
@@ -0,0 +1,72 @@
+package br.com.selenium.api.scheduling;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit test class for LongestFirstScheduler and ScenarioKey.
+ */
+public class LongestFirstSchedulerTest {
+
+    private static Map<String, Long> weights(long... millis) {
+        Map<String, Long> weights = new HashMap<>();
+        for (int i = 0; i < millis.length; i++) {
+            weights.put("s" + i, millis[i]);
+        }
+        return weights;
+    }
+
+    private static Map<String, String> keys(Map<String, Long> weights) {
+        Map<String, String> keys = new HashMap<>();
+        for (String unit : weights.keySet()) {
+            keys.put(unit, unit);
+        }
+        return keys;
+    }
+
+    private static long total(List<String> bin, Map<String, Long> weights) {
+        return bin.stream().mapToLong(weights::get).sum();
+    }
+
+    /**
+     * Units are ordered longest first, ties broken by key.
+     */
+    @Test
+    public void testLongestFirstOrder() {
+        Map<String, Long> weights = weights(100, 900, 100, 500);
+
+        assertEquals(Arrays.asList("s1", "s3", "s0", "s2"), LongestFirstScheduler.longestFirst(weights, keys(weights)));
+    }
+
+    /**
+     * Bins get about the same total weight and the plan is the same on every call.
+     */
+    @Test
+    public void testPartitionIsBalancedAndDeterministic() {
+        Map<String, Long> weights = weights(800, 700, 600, 500, 400, 300, 200, 100);
+
+        List<List<String>> bins = LongestFirstScheduler.partition(weights, keys(weights), 2);
+
+        assertEquals(2, bins.size());
+        assertEquals(1800, total(bins.get(0), weights));
+        assertEquals(1800, total(bins.get(1), weights));
+        assertEquals(bins, LongestFirstScheduler.partition(weights, keys(weights), 2));
+    }
+
+    /**
+     * The key of a running scenario matches the key built from the runner display names.
+     */
+    @Test
+    public void testScenarioKeyFromIdMatchesDisplayNames() {
+        assertEquals("pesquisa-no-google;pesquisa-com-sucesso",
+                ScenarioKey.fromId("pesquisa-no-google;pesquisa-com-sucesso;;2"));
+        assertEquals("pesquisa-no-google;pesquisa-com-sucesso",
+                ScenarioKey.fromNames("Feature: Pesquisa no Google", "Scenario Outline: Pesquisa com_sucesso"));
+    }
+}
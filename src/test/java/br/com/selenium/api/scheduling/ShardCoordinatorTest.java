@@ -0,0 +1,113 @@
+package br.com.selenium.api.scheduling;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit test class for ShardCoordinator.
+ * Verifies that identical workers get distinct shards and follow the same plan.
+ */
+public class ShardCoordinatorTest {
+
+    private Path runDirectory;
+
+    @Before
+    public void setUp() throws IOException {
+        runDirectory = Files.createTempDirectory("shards").resolve("run-1");
+    }
+
+    private ShardCoordinator worker() {
+        return new ShardCoordinator(runDirectory, TimeUnit.HOURS.toMillis(1));
+    }
+
+    /**
+     * Every worker claims a different index, and extra workers are refused.
+     */
+    @Test
+    public void testWorkersClaimDistinctShards() {
+        assertEquals(0, worker().claimIndex(2));
+        assertEquals(1, worker().claimIndex(2));
+        try {
+            worker().claimIndex(2);
+            fail("Expected every shard to be claimed");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("already claimed"));
+        }
+    }
+
+    /**
+     * Claims left over from an earlier run are taken over.
+     */
+    @Test
+    public void testStaleClaimIsReplaced() throws IOException {
+        assertEquals(0, worker().claimIndex(1));
+        Files.setLastModifiedTime(runDirectory.resolve("shard-0.claim"),
+                FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(2)));
+
+        assertEquals(0, worker().claimIndex(1));
+    }
+
+    /**
+     * Done shards are not claimed again, and the claims are released when the whole run is done.
+     */
+    @Test
+    public void testCompletedRunReleasesClaims() {
+        assertEquals(0, worker().claimIndex(2));
+        assertEquals(1, worker().claimIndex(2));
+        worker().sharePlan(new HashMap<>());
+
+        worker().complete(0, 2);
+        try {
+            worker().claimIndex(2);
+            fail("Expected a done shard to stay claimed");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("already claimed"));
+        }
+
+        worker().complete(1, 2);
+        assertFalse(Files.exists(runDirectory));
+        assertEquals(0, worker().claimIndex(2));
+    }
+
+    /**
+     * The first published plan wins, even if a later worker computed a different one.
+     */
+    @Test
+    public void testFirstPublishedPlanIsShared() {
+        Map<String, Integer> first = new HashMap<>();
+        first.put("demo;pesquisa", 0);
+        first.put("demo;falha", 1);
+        Map<String, Integer> second = new HashMap<>();
+        second.put("demo;pesquisa", 1);
+        second.put("demo;falha", 0);
+
+        assertEquals(first, worker().sharePlan(first));
+        assertEquals(first, worker().sharePlan(second));
+    }
+
+    /**
+     * A shared claim directory needs a run id: a fixed one would find the claims of a killed run.
+     */
+    @Test
+    public void testClaimDirectoryNeedsARunId() {
+        System.setProperty("shard.claim.directory", runDirectory.getParent().toString());
+        try {
+            ShardCoordinator.fromConfig();
+            fail("Expected a missing shard.run.id to be refused");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("shard.run.id"));
+        } finally {
+            System.clearProperty("shard.claim.directory");
+        }
+    }
+}
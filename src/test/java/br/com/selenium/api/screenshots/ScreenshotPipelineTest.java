@@ -0,0 +1,228 @@
+package br.com.selenium.api.screenshots;
+
+import br.com.selenium.api.attachments.AttachmentStore;
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.AllureResultsWriter;
+import io.qameta.allure.model.Attachment;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.model.TestResultContainer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit test class for ScreenshotPipeline.
+ * Verifies the capture policies, the background attachment write, deduplication and downscaling.
+ */
+public class ScreenshotPipelineTest {
+
+    private final Map<String, String> writtenBy = new ConcurrentHashMap<>();
+    private final List<String> writes = new CopyOnWriteArrayList<>();
+    private AllureLifecycle previousLifecycle;
+    private AllureLifecycle lifecycle;
+
+    @Before
+    public void setUp() {
+        previousLifecycle = Allure.getLifecycle();
+        lifecycle = new AllureLifecycle(new AllureResultsWriter() {
+            @Override
+            public void write(TestResult testResult) {
+            }
+
+            @Override
+            public void write(TestResultContainer testResultContainer) {
+            }
+
+            @Override
+            public void write(String source, InputStream attachment) {
+                writtenBy.put(source, Thread.currentThread().getName());
+                writes.add(source);
+            }
+        });
+        Allure.setLifecycle(lifecycle);
+    }
+
+    @After
+    public void tearDown() {
+        Allure.setLifecycle(previousLifecycle);
+    }
+
+    /**
+     * SAMPLED keeps the first and every Nth screenshot of a scenario, ON_FAILURE none.
+     */
+    @Test
+    public void testCapturePolicies() {
+        ScreenshotPipeline sampled = new ScreenshotPipeline(CapturePolicy.SAMPLED, 3, 1.0, "png", false, null, -1);
+        int captured = 0;
+        for (int i = 0; i < 7; i++) {
+            captured += sampled.shouldCapture() ? 1 : 0;
+        }
+        assertEquals(3, captured);
+        sampled.startScenario();
+        assertTrue(sampled.shouldCapture());
+
+        ScreenshotPipeline onFailure = new ScreenshotPipeline(CapturePolicy.ON_FAILURE, 1, 1.0, "png", false, null, -1);
+        assertFalse(onFailure.shouldCapture());
+        assertTrue(new ScreenshotPipeline(CapturePolicy.EVERY_STEP, 1, 1.0, "png", false, null, -1).shouldCapture());
+    }
+
+    /**
+     * The attachment is registered on the test right away and written on a background thread.
+     */
+    @Test
+    public void testAttachmentIsWrittenInBackground() throws IOException {
+        ScreenshotPipeline pipeline = new ScreenshotPipeline(CapturePolicy.EVERY_STEP, 1, 1.0, "png", true, null, -1);
+
+        List<Attachment> attachments = runTestCase(() -> pipeline.attach("Tela", png(20, 10, 0)), pipeline);
+
+        assertEquals(1, attachments.size());
+        String source = attachments.get(0).getSource();
+        assertTrue(writtenBy.containsKey(source));
+        assertTrue(writtenBy.get(source).startsWith("screenshot-writer-"));
+    }
+
+    /**
+     * Identical screenshots are written once and referenced by every attachment.
+     */
+    @Test
+    public void testIdenticalScreenshotsAreStoredOnce() throws IOException {
+        ScreenshotPipeline pipeline = new ScreenshotPipeline(CapturePolicy.EVERY_STEP, 1, 1.0, "png", true,
+                new AttachmentStore(Files.createTempDirectory("allure-results")), -1);
+
+        List<Attachment> attachments = runTestCase(() -> {
+            pipeline.attach("Página do Google", png(20, 10, 0));
+            pipeline.attach("Página do Google", png(20, 10, 0));
+            pipeline.attach("Outra página", png(20, 10, 0xFFFFFF));
+        }, pipeline);
+
+        assertEquals(3, attachments.size());
+        assertEquals(attachments.get(0).getSource(), attachments.get(1).getSource());
+        assertNotEquals(attachments.get(0).getSource(), attachments.get(2).getSource());
+        assertEquals(2, writes.size());
+    }
+
+    /**
+     * With a perceptual threshold a nearly identical screenshot reuses the stored file.
+     */
+    @Test
+    public void testNearDuplicatesAreStoredOnce() throws IOException {
+        ScreenshotPipeline pipeline = new ScreenshotPipeline(CapturePolicy.EVERY_STEP, 1, 1.0, "png", false,
+                new AttachmentStore(Files.createTempDirectory("allure-results")), 2);
+        byte[] nearDuplicate = png(200, 100, 0);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(nearDuplicate));
+        image.setRGB(5, 5, 0xFFFFFF);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+
+        List<Attachment> attachments = runTestCase(() -> {
+            pipeline.attach("Antes", png(200, 100, 0));
+            pipeline.attach("Depois", out.toByteArray());
+        }, pipeline);
+
+        assertEquals(attachments.get(0).getSource(), attachments.get(1).getSource());
+        assertEquals(1, writes.size());
+    }
+
+    /**
+     * Full-page screenshots that differ only in a message are different pages.
+     */
+    @Test
+    public void testDifferentPagesAreNotMerged() throws IOException {
+        ScreenshotPipeline pipeline = new ScreenshotPipeline(CapturePolicy.EVERY_STEP, 1, 1.0, "png", false,
+                new AttachmentStore(Files.createTempDirectory("allure-results")), 2);
+
+        List<Attachment> attachments = runTestCase(() -> {
+            pipeline.attach("Falha", errorPage("Erro: usuário não encontrado", 100, 200));
+            pipeline.attach("Falha", errorPage("Erro: tempo esgotado na conexão com o servidor", 100, 200));
+            pipeline.attach("Falha", errorPage("Erro: usuário não encontrado", 500, 600));
+        }, pipeline);
+
+        assertEquals(3, new HashSet<>(Arrays.asList(attachments.get(0).getSource(), attachments.get(1).getSource(),
+                attachments.get(2).getSource())).size());
+        assertEquals(3, writes.size());
+    }
+
+    /**
+     * A configured scale downsizes the image.
+     */
+    @Test
+    public void testScreenshotIsDownscaled() throws IOException {
+        ScreenshotPipeline pipeline = new ScreenshotPipeline(CapturePolicy.EVERY_STEP, 1, 0.5, "png", false, null, -1);
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(pipeline.encode(png(200, 100, 0))));
+
+        assertEquals(100, image.getWidth());
+        assertEquals(50, image.getHeight());
+    }
+
+    private interface Steps {
+        void run() throws IOException;
+    }
+
+    private List<Attachment> runTestCase(Steps steps, ScreenshotPipeline pipeline) throws IOException {
+        String uuid = UUID.randomUUID().toString();
+        lifecycle.scheduleTestCase(new TestResult().withUuid(uuid).withName("screenshot"));
+        lifecycle.startTestCase(uuid);
+
+        steps.run();
+        pipeline.flush();
+
+        TestResult[] result = new TestResult[1];
+        lifecycle.updateTestCase(uuid, testResult -> result[0] = testResult);
+        lifecycle.stopTestCase(uuid);
+        lifecycle.writeTestCase(uuid);
+        return result[0].getAttachments();
+    }
+
+    private static byte[] errorPage(String message, int x, int y) throws IOException {
+        BufferedImage image = new BufferedImage(1200, 800, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, 1200, 800);
+            graphics.setColor(Color.DARK_GRAY);
+            graphics.fillRect(0, 0, 1200, 60);
+            graphics.setColor(Color.RED);
+            graphics.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 16));
+            graphics.drawString(message, x, y);
+        } finally {
+            graphics.dispose();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static byte[] png(int width, int height, int rgb) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                image.setRGB(x, y, x < width / 2 ? rgb : ~rgb & 0xFFFFFF);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
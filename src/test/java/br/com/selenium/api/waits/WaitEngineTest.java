@@ -0,0 +1,107 @@
+package br.com.selenium.api.waits;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * JUnit test class for WaitEngine.
+ * Uses a mocked WebDriver so no browser is needed.
+ */
+public class WaitEngineTest {
+
+    private WebDriver driver;
+    private WaitEngine waitEngine;
+
+    @Before
+    public void setUp() {
+        driver = Mockito.mock(WebDriver.class);
+        waitEngine = new WaitEngine(driver);
+    }
+
+    /**
+     * An absent element is reported without waiting for any timeout.
+     */
+    @Test
+    public void testAbsentElementReturnsImmediately() {
+        By locator = By.id("missing");
+        when(driver.findElements(locator)).thenReturn(Collections.<WebElement>emptyList());
+
+        long start = System.nanoTime();
+        boolean absent = waitEngine.isSatisfied(Conditions.absent(locator), Duration.ZERO);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue("Element should be reported as absent", absent);
+        assertTrue("Absence check should not wait, took " + elapsedMillis + " ms", elapsedMillis < 200);
+    }
+
+    /**
+     * NotFound exceptions are retried until the condition is met.
+     */
+    @Test
+    public void testRetriesUntilElementAppears() {
+        By locator = By.name("q");
+        WebElement element = Mockito.mock(WebElement.class);
+        when(driver.findElement(locator))
+                .thenThrow(new NoSuchElementException("not yet"))
+                .thenThrow(new NoSuchElementException("not yet"))
+                .thenReturn(element);
+
+        WebElement found = waitEngine.until(Conditions.present(locator), Duration.ofSeconds(2));
+
+        assertSame(element, found);
+    }
+
+    /**
+     * A condition that never holds fails with a TimeoutException close to the per-call timeout.
+     */
+    @Test
+    public void testTimeoutIsHonoured() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        long start = System.nanoTime();
+        try {
+            waitEngine.until(d -> attempts.incrementAndGet() < 0, Duration.ofMillis(300));
+            fail("Expected a TimeoutException");
+        } catch (TimeoutException e) {
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            assertTrue("Should wait at least the timeout", elapsedMillis >= 300);
+            assertTrue("Should not wait far beyond the timeout, took " + elapsedMillis, elapsedMillis < 1000);
+        }
+
+        // Adaptive backoff polls often at first, but far less than a busy loop
+        assertTrue("Expected several attempts, got " + attempts.get(), attempts.get() > 3);
+        assertTrue("Expected backoff to limit attempts, got " + attempts.get(), attempts.get() < 30);
+    }
+
+    /**
+     * Conditions compose with allOf, anyOf and not.
+     */
+    @Test
+    public void testComposableConditions() {
+        By missing = By.id("missing");
+        By existing = By.id("existing");
+        WebElement element = Mockito.mock(WebElement.class);
+        when(driver.findElements(missing)).thenReturn(Collections.<WebElement>emptyList());
+        when(driver.findElements(existing)).thenReturn(Collections.singletonList(element));
+        when(driver.findElement(existing)).thenReturn(element);
+
+        assertTrue(waitEngine.isSatisfied(
+                Conditions.allOf(Conditions.absent(missing), Conditions.present(existing)), Duration.ZERO));
+        assertTrue(waitEngine.isSatisfied(
+                Conditions.anyOf(Conditions.absent(existing), Conditions.absent(missing)), Duration.ZERO));
+        assertFalse(waitEngine.isSatisfied(Conditions.not(Conditions.absent(missing)), Duration.ZERO));
+    }
+}
@@ -1,18 +1,18 @@
 package br.com.selenium.elements;
 
 import br.com.selenium.api.annotation.Logger;
+import br.com.selenium.api.pagefactory.CachedPageFactory;
 import lombok.Getter;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
-import org.openqa.selenium.support.PageFactory;
 
 @Logger(level = "DEBUG")
 @Getter
 public class GoogleSearchElements {
 
     public GoogleSearchElements(WebDriver driver) {
-        PageFactory.initElements(driver, this);
+        CachedPageFactory.initElements(driver, this);
     }
 
     @FindBy(name = "q")
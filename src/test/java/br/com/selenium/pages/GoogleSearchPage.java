@@ -4,7 +4,6 @@ import br.com.selenium.api.annotation.Logger;
 import br.com.selenium.elements.GoogleSearchElements;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.PageFactory;
 
 @Logger(level = "DEBUG")
 public class GoogleSearchPage {
@@ -13,7 +12,6 @@ public class GoogleSearchPage {
 
     public GoogleSearchPage(WebDriver driver) {
         this.googleSearchElements = new GoogleSearchElements(driver);
-        PageFactory.initElements(driver, this);
     }
 
     public WebElement getSearchBox() {
@@ -0,0 +1,15 @@
+package br.com.selenium.runner;
+
+import br.com.selenium.api.reporting.BufferedResultsWriter;
+import io.qameta.allure.junit4.AllureJunit4;
+
+/**
+ * Surefire listener that reports JUnit results to Allure through BufferedResultsWriter.
+ * Surefire creates it before any runner, so it installs the buffered writer first.
+ */
+public class BufferedAllureJunit4 extends AllureJunit4 {
+
+    static {
+        BufferedResultsWriter.install();
+    }
+}
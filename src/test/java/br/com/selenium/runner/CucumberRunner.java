@@ -1,26 +1,29 @@
 package br.com.selenium.runner;
 
 import cucumber.api.CucumberOptions;
-import cucumber.api.junit.Cucumber;
 import org.junit.runner.RunWith;
 
 /**
  * Classe responsável por executar os testes de aceitação utilizando Cucumber.
  *
  * Esta classe configura e inicializa o framework Cucumber para executar os testes BDD.
+ * Os cenários rodam do mais longo para o mais curto, pelo histórico de durações (ScheduledCucumber).
  *
  * Configurações:
  * - Plugins de relatório: pretty, HTML, JUnit e Allure
  * - Localização dos step definitions: br.com.selenium.steps
  * - Localização dos arquivos .feature: src/test/resources
+ * - Apenas cenários de interface: @api e @db rodam no ApiTestRunner, não em cada contêiner do navegador
  *
  * @see cucumber.api.CucumberOptions
- * @see cucumber.api.junit.Cucumber
+ * @see ScheduledCucumber
  */
-@RunWith(Cucumber.class)
+@RunWith(ScheduledCucumber.class)
 @CucumberOptions(
-        plugin = {"pretty", "html:target/cucumber", "junit:target/cucumber.xml", "io.qameta.allure.cucumberjvm.AllureCucumberJvm"},
+        plugin = {"pretty", "html:target/cucumber", "junit:target/cucumber.xml", "br.com.selenium.api.reporting.BufferedAllureCucumberJvm",
+                "br.com.selenium.api.performance.PerformanceRecorder"},
         glue = {"br.com.selenium.steps", "br.com.selenium.api.hooks"},
-        features = "src/test/resources")
+        features = "src/test/resources",
+        tags = {"~@api", "~@db"})
 public class CucumberRunner {
 }
\ No newline at end of file
@@ -0,0 +1,245 @@
+package br.com.selenium.runner;
+
+import br.com.selenium.api.annotation.Logger;
+import br.com.selenium.api.database.Dataset;
+import br.com.selenium.api.utils.LoggerManager;
+import cucumber.api.junit.Cucumber;
+import cucumber.runtime.Runtime;
+import cucumber.runtime.RuntimeOptions;
+import cucumber.runtime.io.MultiLoader;
+import cucumber.runtime.junit.ExamplesRunner;
+import cucumber.runtime.junit.ExecutionUnitRunner;
+import cucumber.runtime.junit.FeatureRunner;
+import cucumber.runtime.junit.JUnitReporter;
+import cucumber.runtime.junit.ScenarioOutlineRunner;
+import cucumber.runtime.model.CucumberExamples;
+import cucumber.runtime.model.CucumberFeature;
+import cucumber.runtime.model.CucumberScenario;
+import cucumber.runtime.model.CucumberScenarioOutline;
+import cucumber.runtime.model.CucumberTagStatement;
+import gherkin.formatter.model.Comment;
+import gherkin.formatter.model.Examples;
+import gherkin.formatter.model.ExamplesTableRow;
+import gherkin.formatter.model.Tag;
+import org.junit.runner.Description;
+import org.junit.runner.Runner;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.ParentRunner;
+import org.junit.runners.Suite;
+import org.junit.runners.model.InitializationError;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scenario outline examples read from the database while the scenarios run, see Dataset.
+ * An Examples table tagged @dataset:&lt;name&gt; has only a header, the columns to read:
+ *
+ *   @dataset:usuarios
+ *   Examples:
+ *     | id | nome |
+ *
+ * Nothing is expanded when the features are parsed: the JUnit tree has one node per data set,
+ * and every row becomes a scenario only when its turn comes, so suites with tens of thousands
+ * of rows start at once and keep one page of rows in memory.
+ * Gherkin's tag filter clears the tags of the examples it keeps, so when the run has --tags
+ * the data set names are read from an unfiltered parse of the same features.
+ */
+public class DatasetExamples {
+    private static final String TAG = "@dataset:";
+    private static final Method GET_CHILDREN = method(ParentRunner.class, "getChildren");
+    private static final Method TAGS = method(CucumberExamples.class, "tagsAndInheritedTags");
+    private static final Method CREATE_SCENARIO = method(CucumberScenarioOutline.class, "createExampleScenario",
+            ExamplesTableRow.class, ExamplesTableRow.class, List.class, String.class);
+    private static final Field RUNTIME = field(Cucumber.class, "runtime");
+    private static final Field OPTIONS = field(Runtime.class, "runtimeOptions");
+    private static final Field FEATURE = field(FeatureRunner.class, "cucumberFeature");
+    private static final Field REPORTER = field(Cucumber.class, "jUnitReporter");
+    private static final Field OUTLINE = field(ScenarioOutlineRunner.class, "cucumberScenarioOutline");
+    private static final Field EXAMPLES = field(ExamplesRunner.class, "cucumberExamples");
+    private static final Field RUNNERS = field(Suite.class, "runners");
+
+    private DatasetExamples() {
+        // Utility class
+    }
+
+    /**
+     * Replace the @dataset examples of the runner with lazy data set runners.
+     * Must be called before the JUnit descriptions are built, i.e. right after super(clazz).
+     * @return The number of data sets found
+     */
+    public static int install(Cucumber cucumber) {
+        try {
+            Runtime runtime = (Runtime) RUNTIME.get(cucumber);
+            JUnitReporter reporter = (JUnitReporter) REPORTER.get(cucumber);
+            RuntimeOptions options = (RuntimeOptions) OPTIONS.get(runtime);
+            Map<String, String> unfiltered = options.getFilters().isEmpty()
+                    ? Collections.emptyMap() : unfilteredDatasets(options.getFeaturePaths());
+            int found = 0;
+            for (Object feature : children(cucumber)) {
+                String path = ((CucumberFeature) FEATURE.get(feature)).getPath();
+                for (Object element : children((ParentRunner<?>) feature)) {
+                    if (element instanceof ScenarioOutlineRunner) {
+                        found += replaceExamples((ScenarioOutlineRunner) element, path, unfiltered, runtime, reporter);
+                    }
+                }
+            }
+            return found;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unsupported Cucumber version", e);
+        }
+    }
+
+    private static int replaceExamples(ScenarioOutlineRunner outlineRunner, String path, Map<String, String> unfiltered,
+                                       Runtime runtime, JUnitReporter reporter) throws ReflectiveOperationException {
+        CucumberScenarioOutline outline = (CucumberScenarioOutline) OUTLINE.get(outlineRunner);
+        List<Runner> runners = new ArrayList<>();
+        int found = 0;
+        for (Object child : children(outlineRunner)) {
+            CucumberExamples examples = (CucumberExamples) EXAMPLES.get(child);
+            String name = datasetOf(examples.getExamples());
+            if (name == null) {
+                name = unfiltered.get(path + ":" + examples.getExamples().getLine());
+            }
+            if (name == null) {
+                runners.add((Runner) child);
+                continue;
+            }
+            if (examples.getExamples().getRows().size() != 1) {
+                throw new IllegalStateException("Examples with @dataset must have only the header: "
+                        + outline.getVisualName() + ", line " + examples.getExamples().getLine());
+            }
+            runners.add(new DatasetRunner(outline, examples, name, runtime, reporter));
+            found++;
+        }
+        if (found > 0) {
+            RUNNERS.set(outlineRunner, Collections.unmodifiableList(runners));
+        }
+        return found;
+    }
+
+    private static String datasetOf(Examples examples) {
+        for (Tag tag : examples.getTags()) {
+            if (tag.getName().startsWith(TAG)) {
+                return tag.getName().substring(TAG.length());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Data set names of all examples of the features, by feature path and line, parsed without filters.
+     */
+    private static Map<String, String> unfilteredDatasets(List<String> featurePaths) {
+        Map<String, String> datasets = new HashMap<>();
+        MultiLoader loader = new MultiLoader(DatasetExamples.class.getClassLoader());
+        for (CucumberFeature feature : CucumberFeature.load(loader, featurePaths, Collections.emptyList())) {
+            for (CucumberTagStatement element : feature.getFeatureElements()) {
+                if (!(element instanceof CucumberScenarioOutline)) {
+                    continue;
+                }
+                for (CucumberExamples examples : ((CucumberScenarioOutline) element).getCucumberExamplesList()) {
+                    String name = datasetOf(examples.getExamples());
+                    if (name != null) {
+                        datasets.put(feature.getPath() + ":" + examples.getExamples().getLine(), name);
+                    }
+                }
+            }
+        }
+        return datasets;
+    }
+
+    private static List<?> children(ParentRunner<?> runner) throws ReflectiveOperationException {
+        return (List<?>) GET_CHILDREN.invoke(runner);
+    }
+
+    private static Method method(Class<?> type, String name, Class<?>... parameters) {
+        try {
+            Method method = type.getDeclaredMethod(name, parameters);
+            method.setAccessible(true);
+            return method;
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Unsupported Cucumber version: " + type.getName() + "." + name, e);
+        }
+    }
+
+    private static Field field(Class<?> type, String name) {
+        try {
+            Field field = type.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException("Unsupported Cucumber version: " + type.getName() + "." + name, e);
+        }
+    }
+
+    /**
+     * Runs the rows of one data set as example scenarios, creating each one when its row is read.
+     */
+    @Logger(level = "INFO")
+    public static class DatasetRunner extends Runner {
+        private final CucumberScenarioOutline outline;
+        private final CucumberExamples examples;
+        private final Dataset dataset;
+        private final Runtime runtime;
+        private final JUnitReporter reporter;
+        private final Description description;
+
+        DatasetRunner(CucumberScenarioOutline outline, CucumberExamples examples, String name,
+                      Runtime runtime, JUnitReporter reporter) {
+            this.outline = outline;
+            this.examples = examples;
+            this.dataset = Dataset.of(name, examples.getExamples().getRows().get(0).getCells());
+            this.runtime = runtime;
+            this.reporter = reporter;
+            this.description = Description.createSuiteDescription(examples.getExamples().getKeyword() + ": "
+                    + examples.getExamples().getName() + " (dataset " + name + ")", examples.getExamples());
+        }
+
+        @Override
+        public Description getDescription() {
+            return description;
+        }
+
+        @Override
+        public void run(RunNotifier notifier) {
+            run(runtime, reporter, notifier);
+        }
+
+        /**
+         * Run every row with the given Runtime and reporter, e.g. those of a ParallelCucumber worker.
+         */
+        void run(Runtime runtime, JUnitReporter reporter, RunNotifier notifier) {
+            Examples gherkin = examples.getExamples();
+            ExamplesTableRow header = gherkin.getRows().get(0);
+            reporter.examples(gherkin);
+            long rows = 0;
+            long start = System.nanoTime();
+            try {
+                List<Tag> tags = new ArrayList<>();
+                for (Object tag : (Collection<?>) TAGS.invoke(examples)) {
+                    tags.add((Tag) tag);
+                }
+                for (List<String> cells : dataset) {
+                    rows++;
+                    // Same id scheme as Gherkin: the header is row 1
+                    ExamplesTableRow row = new ExamplesTableRow(Collections.<Comment>emptyList(), cells, header.getLine(),
+                            gherkin.getId() + ";" + (rows + 1));
+                    CucumberScenario scenario = (CucumberScenario) CREATE_SCENARIO.invoke(outline, header, row, tags,
+                            gherkin.getDescription());
+                    new ExecutionUnitRunner(runtime, scenario, reporter).run(notifier);
+                }
+            } catch (ReflectiveOperationException | InitializationError e) {
+                throw new IllegalStateException("Could not run data set " + dataset.getName(), e);
+            }
+            LoggerManager.info(String.format("Data set %s: %d row(s) in %d ms", dataset.getName(), rows,
+                    (System.nanoTime() - start) / 1_000_000));
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package br.com.selenium.runner;
+
+import br.com.selenium.api.annotation.Logger;
+import br.com.selenium.api.utils.ConfigManager;
+import br.com.selenium.api.utils.LoggerManager;
+import cucumber.api.CucumberOptions;
+import cucumber.api.junit.Cucumber;
+import cucumber.runtime.ClassFinder;
+import cucumber.runtime.Runtime;
+import cucumber.runtime.RuntimeOptions;
+import cucumber.runtime.RuntimeOptionsFactory;
+import cucumber.runtime.io.MultiLoader;
+import cucumber.runtime.io.ResourceLoader;
+import cucumber.runtime.io.ResourceLoaderClassFinder;
+import cucumber.runtime.junit.ExecutionUnitRunner;
+import cucumber.runtime.junit.FeatureRunner;
+import cucumber.runtime.junit.JUnitOptions;
+import cucumber.runtime.junit.JUnitReporter;
+import cucumber.runtime.model.CucumberFeature;
+import cucumber.runtime.model.CucumberScenario;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.manipulation.NoTestsRemainException;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.ParentRunner;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.Statement;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cucumber JUnit runner that runs scenarios concurrently, for I/O-bound glue such as the API steps.
+ * With -Dparallel.threads=N (N &gt; 1) the scenarios run on a pool of N threads; with
+ * -Dparallel.virtual=true the pool uses virtual threads when the JVM has them (Java 21+).
+ * Every worker thread has its own Cucumber Runtime, so step definition instances (e.g. ApiSteps)
+ * are created per scenario and never shared between threads, and its own instance of the
+ * custom report plugins of the runner (e.g. BufferedAllureCucumberJvm), so the Allure state of
+ * a scenario stays on the thread that runs it.
+ * Built-in plugins (pretty, html, junit, json) need one ordered event stream and only receive
+ * events when running sequentially; JUnit/surefire still gets every result.
+ * At the end the PerformanceGate compares the run with its baseline, see PerformanceGateCheck.
+ */
+@Logger(level = "INFO")
+public class ParallelCucumber extends Cucumber {
+    private static final Method GET_CHILDREN = method(ParentRunner.class, "getChildren");
+    private static final Field FEATURE = field(FeatureRunner.class, "cucumberFeature");
+    private static final Field SCENARIO = field(ExecutionUnitRunner.class, "cucumberScenario");
+
+    private final Class<?> clazz;
+    private final int threads = ConfigManager.getInt("parallel.threads", 1);
+    private Filter filter = Filter.ALL;
+
+    public ParallelCucumber(Class<?> clazz) throws InitializationError, IOException {
+        super(clazz);
+        DatasetExamples.install(this);
+        this.clazz = clazz;
+    }
+
+    @Override
+    public void run(RunNotifier notifier) {
+        super.run(notifier);
+        PerformanceGateCheck.afterRun(getTestClass().getJavaClass(), notifier);
+    }
+
+    @Override
+    public void filter(Filter filter) throws NoTestsRemainException {
+        super.filter(filter);
+        this.filter = this.filter.intersect(filter);
+    }
+
+    @Override
+    protected Statement childrenInvoker(RunNotifier notifier) {
+        if (threads <= 1) {
+            return super.childrenInvoker(notifier);
+        }
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                runConcurrently(notifier);
+            }
+        };
+    }
+
+    private void runConcurrently(RunNotifier notifier) throws Exception {
+        List<Unit> units = new ArrayList<>();
+        for (FeatureRunner feature : getChildren()) {
+            if (filter.shouldRun(feature.getDescription())) {
+                collectUnits((CucumberFeature) FEATURE.get(feature), feature, units);
+            }
+        }
+
+        Queue<Worker> workers = new ConcurrentLinkedQueue<>();
+        ThreadLocal<Worker> worker = ThreadLocal.withInitial(() -> {
+            Worker created = new Worker(clazz);
+            workers.add(created);
+            return created;
+        });
+        ExecutorService pool = Executors.newFixedThreadPool(threads, threadFactory());
+        long start = System.nanoTime();
+        LoggerManager.info("Running " + units.size() + " scenario(s) on " + threads + " thread(s)");
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            for (Unit unit : units) {
+                running.add(pool.submit(() -> worker.get().run(unit, notifier)));
+            }
+            for (Future<?> future : running) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+            for (Worker done : workers) {
+                done.close();
+            }
+        }
+        LoggerManager.info(String.format("Ran %d scenario(s) in %d ms", units.size(), (System.nanoTime() - start) / 1_000_000));
+    }
+
+    private void collectUnits(CucumberFeature feature, ParentRunner<?> runner, List<Unit> units) throws Exception {
+        for (Object child : (List<?>) GET_CHILDREN.invoke(runner)) {
+            if (child instanceof ExecutionUnitRunner) {
+                ExecutionUnitRunner unit = (ExecutionUnitRunner) child;
+                if (filter.shouldRun(unit.getDescription())) {
+                    units.add(new Unit(feature, (CucumberScenario) SCENARIO.get(unit), null));
+                }
+            } else if (child instanceof DatasetExamples.DatasetRunner) {
+                // The rows of a data set run in order on one worker, read as they go
+                DatasetExamples.DatasetRunner dataset = (DatasetExamples.DatasetRunner) child;
+                if (filter.shouldRun(dataset.getDescription())) {
+                    units.add(new Unit(feature, null, dataset));
+                }
+            } else if (child instanceof ParentRunner) {
+                // Scenario outlines and their examples
+                collectUnits(feature, (ParentRunner<?>) child, units);
+            }
+        }
+    }
+
+    private static ThreadFactory threadFactory() {
+        if (ConfigManager.getBoolean("parallel.virtual", false)) {
+            try {
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+                builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "scenario-worker-", 1L);
+                return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            } catch (ReflectiveOperationException e) {
+                LoggerManager.warn("Virtual threads not available on Java " + System.getProperty("java.version")
+                        + ", using platform threads");
+            }
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, "scenario-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static Method method(Class<?> type, String name) {
+        try {
+            Method method = type.getDeclaredMethod(name);
+            method.setAccessible(true);
+            return method;
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Unsupported Cucumber version: " + type.getName() + "." + name, e);
+        }
+    }
+
+    private static Field field(Class<?> type, String name) {
+        try {
+            Field field = type.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException("Unsupported Cucumber version: " + type.getName() + "." + name, e);
+        }
+    }
+
+    /**
+     * One scenario, one example row of a scenario outline, or a whole @dataset examples table.
+     */
+    private static class Unit {
+        private final CucumberFeature feature;
+        private final CucumberScenario scenario;
+        private final DatasetExamples.DatasetRunner dataset;
+
+        Unit(CucumberFeature feature, CucumberScenario scenario, DatasetExamples.DatasetRunner dataset) {
+            this.feature = feature;
+            this.scenario = scenario;
+            this.dataset = dataset;
+        }
+    }
+
+    /**
+     * Runtime, glue and report plugins confined to one worker thread.
+     */
+    private static class Worker {
+        private final Runtime runtime;
+        private final JUnitReporter reporter;
+
+        Worker(Class<?> clazz) {
+            RuntimeOptions options = new RuntimeOptionsFactory(clazz).create();
+            List<String> args = new ArrayList<>();
+            for (String glue : options.getGlue()) {
+                args.add("--glue");
+                args.add(glue);
+            }
+            for (String plugin : clazz.getAnnotation(CucumberOptions.class).plugin()) {
+                // Custom plugins only: built-in ones write one shared file or stream
+                if (plugin.contains(".") && !plugin.contains(":")) {
+                    args.add("--plugin");
+                    args.add(plugin);
+                }
+            }
+            if (options.isStrict()) {
+                args.add("--strict");
+            }
+            RuntimeOptions workerOptions = new RuntimeOptions(args);
+            ClassLoader classLoader = clazz.getClassLoader();
+            ResourceLoader resourceLoader = new MultiLoader(classLoader);
+            ClassFinder classFinder = new ResourceLoaderClassFinder(resourceLoader, classLoader);
+            runtime = new Runtime(resourceLoader, classFinder, classLoader, workerOptions);
+            reporter = new JUnitReporter(workerOptions.reporter(classLoader), workerOptions.formatter(classLoader),
+                    workerOptions.isStrict(), new JUnitOptions(options.getJunitOptions()));
+        }
+
+        void run(Unit unit, RunNotifier notifier) {
+            reporter.uri(unit.feature.getPath());
+            reporter.feature(unit.feature.getGherkinFeature());
+            if (unit.dataset != null) {
+                unit.dataset.run(runtime, reporter, notifier);
+            } else {
+                try {
+                    // Same CucumberScenario as the main runner, so the JUnit descriptions match
+                    new ExecutionUnitRunner(runtime, unit.scenario, reporter).run(notifier);
+                } catch (InitializationError e) {
+                    throw new IllegalStateException("Could not run " + unit.scenario.getVisualName(), e);
+                }
+            }
+            reporter.eof();
+        }
+
+        void close() {
+            reporter.done();
+            reporter.close();
+        }
+    }
+}
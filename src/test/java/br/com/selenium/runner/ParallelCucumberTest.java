@@ -0,0 +1,76 @@
+package br.com.selenium.runner;
+
+import cucumber.api.CucumberOptions;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+import org.junit.runner.notification.RunListener;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * JUnit test class for ParallelCucumber.
+ * Runs the API demo scenarios concurrently and verifies every result reaches JUnit.
+ */
+public class ParallelCucumberTest {
+
+    /**
+     * The API demo scenarios, without the performance recorder and the gate, so no baseline is written.
+     */
+    @RunWith(ParallelCucumber.class)
+    @CucumberOptions(glue = {"br.com.selenium.api.apitests"}, features = "src/test/resources/features/api-demo.feature")
+    public static class ApiDemoRunner {
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty("parallel.threads");
+        System.clearProperty("performance.gate.enabled");
+    }
+
+    /**
+     * Scenarios run on the worker pool and report all their steps.
+     */
+    @Test
+    public void testApiScenariosRunConcurrently() {
+        System.setProperty("parallel.threads", "3");
+        System.setProperty("performance.gate.enabled", "false");
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        JUnitCore core = new JUnitCore();
+        core.addListener(new RunListener() {
+            @Override
+            public void testStarted(Description description) {
+                threads.add(Thread.currentThread().getName());
+            }
+        });
+
+        Request request = Request.aClass(ApiDemoRunner.class);
+        int expected = expectedRunCount(request.getRunner().getDescription());
+        Result result = core.run(request);
+
+        assertTrue(result.getFailures().toString(), result.wasSuccessful());
+        assertTrue(expected > 0);
+        assertEquals(expected, result.getRunCount());
+        assertTrue(threads.toString(), threads.stream().allMatch(name -> name.startsWith("scenario-worker-")));
+    }
+
+    /**
+     * Cucumber reports every scenario to JUnit as a test, besides its steps.
+     */
+    private static int expectedRunCount(Description runner) {
+        int count = 0;
+        for (Description feature : runner.getChildren()) {
+            for (Description scenario : feature.getChildren()) {
+                count += 1 + scenario.testCount();
+            }
+        }
+        return count;
+    }
+}
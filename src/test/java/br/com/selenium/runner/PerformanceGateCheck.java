@@ -0,0 +1,28 @@
+package br.com.selenium.runner;
+
+import br.com.selenium.api.performance.PerformanceGate;
+import br.com.selenium.api.utils.ConfigManager;
+import org.junit.runner.Description;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunNotifier;
+
+/**
+ * Evaluates the PerformanceGate when a runner finishes. With -Dperformance.gate.fail=true
+ * (or PERFORMANCE_GATE_FAIL) a regression is reported to JUnit as a failed test, which fails the build.
+ */
+public class PerformanceGateCheck {
+
+    private PerformanceGateCheck() {
+        // Utility class
+    }
+
+    public static void afterRun(Class<?> runnerClass, RunNotifier notifier) {
+        PerformanceGate.Result result = PerformanceGate.evaluate(runnerClass.getSimpleName());
+        if (result.isRegressed() && ConfigManager.getBoolean("performance.gate.fail", false)) {
+            Description gate = Description.createTestDescription(runnerClass, "Performance regression gate");
+            notifier.fireTestStarted(gate);
+            notifier.fireTestFailure(new Failure(gate, new AssertionError(result.summary())));
+            notifier.fireTestFinished(gate);
+        }
+    }
+}
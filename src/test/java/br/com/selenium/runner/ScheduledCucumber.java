@@ -0,0 +1,242 @@
+package br.com.selenium.runner;
+
+import br.com.selenium.api.annotation.Logger;
+import br.com.selenium.api.rerun.FailedScenarios;
+import br.com.selenium.api.scheduling.DurationStore;
+import br.com.selenium.api.scheduling.LongestFirstScheduler;
+import br.com.selenium.api.scheduling.ScenarioKey;
+import br.com.selenium.api.scheduling.ShardCoordinator;
+import br.com.selenium.api.utils.ConfigManager;
+import br.com.selenium.api.utils.LoggerManager;
+import cucumber.api.junit.Cucumber;
+import org.junit.runner.Description;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.manipulation.NoTestsRemainException;
+import org.junit.runner.manipulation.Sorter;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.model.InitializationError;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cucumber JUnit runner that orders scenarios by their historical duration.
+ * Features and the scenarios inside them run longest first, using the DurationStore
+ * estimates. Scenarios without history are weighted by their number of steps.
+ * With -Dshard.count=N (or SHARD_COUNT) the scenarios are bin-packed longest-first into N
+ * workers of about equal total duration, and this JVM only runs the scenarios of worker
+ * -Dshard.index (0-based, or SHARD_INDEX). Identical workers can leave the index unset and
+ * set -Dshard.claim.directory to a shared directory instead, see ShardCoordinator.
+ * With -Drerun.failed=true only the scenarios that failed in the previous run are run, see FailedScenarios.
+ * Examples tagged @dataset:&lt;name&gt; are read from the database while they run, see DatasetExamples.
+ * At the end the PerformanceGate compares the run with its baseline, see PerformanceGateCheck.
+ * Disable the ordering with -Dscheduling.enabled=false.
+ */
+@Logger(level = "INFO")
+public class ScheduledCucumber extends Cucumber {
+    private static final long DEFAULT_STEP_MILLIS = 1000;
+
+    // Read before the junit plugin of this run truncates target/cucumber.xml
+    private static final Set<String> FAILED = FailedScenarios.isRerun() ? FailedScenarios.fromConfig() : null;
+
+    private final Map<Description, String> scenarioKeys = new IdentityHashMap<>();
+    private final Map<Description, Long> weights = new IdentityHashMap<>();
+    private final Set<Description> active = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    // Set when the shard was claimed through a ShardCoordinator, which is told when it is done
+    private ShardCoordinator coordinator;
+    private int claimedShard = -1;
+    private int shardCount = 1;
+
+    public ScheduledCucumber(Class<?> clazz) throws InitializationError, IOException {
+        super(clazz);
+        DatasetExamples.install(this);
+        boolean ordering = ConfigManager.getBoolean("scheduling.enabled", true);
+        shardCount = Math.max(1, ConfigManager.getInt("shard.count", 1));
+        if (!ordering && shardCount == 1 && FAILED == null) {
+            return;
+        }
+        collectScenarios();
+        if (scenarioKeys.isEmpty()) {
+            return;
+        }
+        estimate(ordering ? DurationStore.estimates() : Collections.emptyMap());
+        active.addAll(scenarioKeys.keySet());
+
+        if (FAILED != null) {
+            selectFailed();
+        }
+        if (shardCount > 1) {
+            selectShard();
+        }
+        if (active.size() < scenarioKeys.size()) {
+            runOnlyActive();
+        }
+        if (ordering) {
+            sortLongestFirst();
+        }
+    }
+
+    @Override
+    public void run(RunNotifier notifier) {
+        super.run(notifier);
+        if (claimedShard >= 0) {
+            coordinator.complete(claimedShard, shardCount);
+        }
+        PerformanceGateCheck.afterRun(getTestClass().getJavaClass(), notifier);
+    }
+
+    private void collectScenarios() {
+        for (Description feature : getDescription().getChildren()) {
+            for (Description scenario : feature.getChildren()) {
+                scenarioKeys.put(scenario, ScenarioKey.fromNames(feature.getDisplayName(), scenario.getDisplayName()));
+            }
+        }
+    }
+
+    private void estimate(Map<String, Long> history) {
+        long knownMillis = 0;
+        long knownSteps = 0;
+        int count = 0;
+        for (Map.Entry<Description, String> scenario : scenarioKeys.entrySet()) {
+            if (history.containsKey(scenario.getValue())) {
+                knownMillis += history.get(scenario.getValue());
+                knownSteps += stepCount(scenario.getKey());
+                count++;
+            }
+        }
+        long stepMillis = knownSteps == 0 ? DEFAULT_STEP_MILLIS : Math.max(1, knownMillis / knownSteps);
+        for (Map.Entry<Description, String> scenario : scenarioKeys.entrySet()) {
+            Long known = history.get(scenario.getValue());
+            weights.put(scenario.getKey(), known != null ? known : stepCount(scenario.getKey()) * stepMillis);
+        }
+        LoggerManager.info(String.format("Scheduling %d scenario(s), %d with history, about %d s of work",
+                scenarioKeys.size(), count, totalMillis(weights.keySet()) / 1000));
+    }
+
+    private static int stepCount(Description description) {
+        if (description.getChildren().isEmpty()) {
+            return 1;
+        }
+        int steps = 0;
+        for (Description child : description.getChildren()) {
+            steps += stepCount(child);
+        }
+        return steps;
+    }
+
+    private void selectShard() {
+        coordinator = ShardCoordinator.fromConfig();
+        int shardIndex = ConfigManager.getInt("shard.index", -1);
+        if (shardIndex < 0 && coordinator != null) {
+            shardIndex = coordinator.claimIndex(shardCount);
+            claimedShard = shardIndex;
+        }
+        shardIndex = Math.max(0, shardIndex);
+        if (shardIndex >= shardCount) {
+            throw new IllegalArgumentException("shard.index must be between 0 and " + (shardCount - 1) + ": " + shardIndex);
+        }
+
+        Map<String, Integer> plan = new HashMap<>();
+        List<List<Description>> bins = LongestFirstScheduler.partition(weights, scenarioKeys, shardCount);
+        for (int i = 0; i < bins.size(); i++) {
+            for (Description scenario : bins.get(i)) {
+                plan.put(scenarioKeys.get(scenario), i);
+            }
+        }
+        if (coordinator != null) {
+            plan = coordinator.sharePlan(plan);
+        }
+        int unplanned = 0;
+        for (Map.Entry<Description, String> scenario : scenarioKeys.entrySet()) {
+            Integer shard = plan.get(scenario.getValue());
+            if (shard == null) {
+                // Not in the shared plan (e.g. a worker built from other sources): every worker agrees on the hash
+                shard = Math.floorMod(scenario.getValue().hashCode(), shardCount);
+                unplanned++;
+            }
+            if (shard != shardIndex) {
+                active.remove(scenario.getKey());
+            }
+        }
+        if (unplanned > 0) {
+            LoggerManager.warn(unplanned + " scenario(s) missing from the shard plan, assigned by key hash");
+        }
+        LoggerManager.info(String.format("Shard %d/%d: %d scenario(s), about %d s of work",
+                shardIndex + 1, shardCount, active.size(), totalMillis(active) / 1000));
+
+    }
+
+    private void selectFailed() {
+        for (Map.Entry<Description, String> scenario : scenarioKeys.entrySet()) {
+            if (!FAILED.contains(scenario.getValue())) {
+                active.remove(scenario.getKey());
+            }
+        }
+        LoggerManager.info(String.format("Rerunning %d failed scenario(s) of %d", active.size(), scenarioKeys.size()));
+    }
+
+    private void runOnlyActive() {
+        try {
+            filter(new Filter() {
+                @Override
+                public boolean shouldRun(Description description) {
+                    if (scenarioKeys.containsKey(description)) {
+                        return active.contains(description);
+                    }
+                    for (Description child : description.getChildren()) {
+                        if (shouldRun(child)) {
+                            return true;
+                        }
+                    }
+                    // Steps have no children and run with their scenario
+                    return description.getChildren().isEmpty();
+                }
+
+                @Override
+                public String describe() {
+                    return active.size() + " scheduled scenario(s)";
+                }
+            });
+        } catch (NoTestsRemainException e) {
+            LoggerManager.info("No scenarios to run");
+        }
+    }
+
+    private void sortLongestFirst() {
+        Map<Description, Long> featureWeights = new IdentityHashMap<>();
+        for (Description feature : getDescription().getChildren()) {
+            featureWeights.put(feature, totalMillis(feature.getChildren()));
+        }
+        sort(new Sorter((first, second) -> {
+            long a = weightOf(first, featureWeights);
+            long b = weightOf(second, featureWeights);
+            return Long.compare(b, a);
+        }));
+    }
+
+    private long weightOf(Description description, Map<Description, Long> featureWeights) {
+        Long weight = weights.get(description);
+        if (weight == null) {
+            weight = featureWeights.get(description);
+        }
+        // Steps keep their order: equal weights and a stable sort
+        return weight == null ? 0 : weight;
+    }
+
+    private long totalMillis(Collection<Description> scenarios) {
+        long total = 0;
+        for (Description scenario : scenarios) {
+            if (active.isEmpty() || active.contains(scenario)) {
+                total += weights.getOrDefault(scenario, 0L);
+            }
+        }
+        return total;
+    }
+}
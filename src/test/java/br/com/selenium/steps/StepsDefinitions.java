@@ -3,6 +3,7 @@ package br.com.selenium.steps;
 import br.com.selenium.api.actions.SeleniumActions;
 import br.com.selenium.api.annotation.Logger;
 import br.com.selenium.api.drivers.WebDriverFactory;
+import br.com.selenium.api.server.LocalWebServer;
 import br.com.selenium.pages.GoogleSearchPage;
 import cucumber.api.java.en.Given;
 import cucumber.api.java.en.Then;
@@ -10,52 +11,73 @@ import cucumber.api.java.en.When;
 import org.junit.Assert;
 import org.openqa.selenium.WebElement;
 
+import java.util.Map;
+
 @Logger(level = "DEBUG")
 public class StepsDefinitions {
     private SeleniumActions seleniumActions;
     private GoogleSearchPage googleSearchPage;
 
-    public StepsDefinitions() {
-        seleniumActions = new SeleniumActions(WebDriverFactory.getInstance().getDriver());
-        googleSearchPage = new GoogleSearchPage(WebDriverFactory.getInstance().getDriver());
+    // O driver é obtido no primeiro passo que usa a página, não na criação da classe
+    private SeleniumActions seleniumActions() {
+        if (seleniumActions == null) {
+            seleniumActions = new SeleniumActions(WebDriverFactory.getInstance().getDriver());
+        }
+        return seleniumActions;
+    }
+
+    private GoogleSearchPage googleSearchPage() {
+        if (googleSearchPage == null) {
+            googleSearchPage = new GoogleSearchPage(WebDriverFactory.getInstance().getDriver());
+        }
+        return googleSearchPage;
     }
 
     @Given("^Estou na página do Google$")
     public void estouNaPaginaDoGoogle() {
-        seleniumActions.navigateTo("https://www.google.com");
-        seleniumActions.takeScreenshot("Página do Google");
+        seleniumActions().navigateTo("https://www.google.com");
+        seleniumActions().takeScreenshot("Página do Google");
     }
 
     @Given("^Estou em um site$")
     public void estouEmUmSite() {
 
-        seleniumActions.navigateTo("https://www.google.com");
-        seleniumActions.takeScreenshot("Página do Google");
+        seleniumActions().navigateTo("https://www.google.com");
+        seleniumActions().takeScreenshot("Página do Google");
+    }
+
+    @Given("^Estou na página local \"([^\"]*)\"$")
+    public void estouNaPaginaLocal(String pagina) {
+
+        seleniumActions().navigateTo(LocalWebServer.getInstance().url(pagina));
+        seleniumActions().takeScreenshot("Página local: " + pagina);
     }
 
     @When("^Eu insiro \"([^\"]*)\" na página$")
     public void euInsiroNaPagina(String texto) {
 
-        WebElement searchBox = googleSearchPage.getSearchBox();
-        seleniumActions.clearAndType(searchBox, texto);
-        seleniumActions.takeScreenshot("Texto inserido: " + texto);
+        WebElement searchBox = googleSearchPage().getSearchBox();
+        seleniumActions().clearAndType(searchBox, texto);
+        seleniumActions().takeScreenshot("Texto inserido: " + texto);
     }
 
     @When("^Eu pesquiso por \"([^\"]*)\"$")
     public void euPesquisoPor(String termo) {
 
-        WebElement searchBox = googleSearchPage.getSearchBox();
-        seleniumActions.clearAndType(searchBox, termo);
-        seleniumActions.pressEnter(searchBox);
-        seleniumActions.takeScreenshot("Pesquisa por: " + termo);
+        WebElement searchBox = googleSearchPage().getSearchBox();
+        seleniumActions().pipeline()
+                .clearAndType(searchBox, termo)
+                .pressEnter(searchBox)
+                .run();
+        seleniumActions().takeScreenshot("Pesquisa por: " + termo);
     }
 
     @When("^Eu clico no botão de pesquisa$")
     public void euClicoNoBotaoDePesquisa() {
 
-        WebElement searchButton = googleSearchPage.getSearchButton();
-        seleniumActions.click(searchButton);
-        seleniumActions.takeScreenshot("Clique no botão de pesquisa");
+        WebElement searchButton = googleSearchPage().getSearchButton();
+        seleniumActions().click(searchButton);
+        seleniumActions().takeScreenshot("Clique no botão de pesquisa");
     }
 
     @Then("^Eu verifico que é \"([^\"]*)\"$")
@@ -66,40 +88,56 @@ public class StepsDefinitions {
                 break;
             case "OK":
 
-                String currentUrl = seleniumActions.getCurrentUrl();
+                String currentUrl = seleniumActions().getCurrentUrl();
                 Assert.assertTrue("Não estamos em uma página do Google", 
                     currentUrl.contains("google"));
                 break;
             case "SUCESS":
 
-                String url = seleniumActions.getCurrentUrl();
+                String url = seleniumActions().getCurrentUrl();
                 Assert.assertTrue("Não estamos em uma página do Google", 
                     url.contains("google"));
                 break;
         }
 
-        seleniumActions.takeScreenshot("Verificação: " + status);
+        seleniumActions().takeScreenshot("Verificação: " + status);
+    }
+
+    @Then("^A URL atual contém \"([^\"]*)\"$")
+    public void aUrlAtualContem(String trecho) {
+
+        String currentUrl = seleniumActions().getCurrentUrl();
+        Assert.assertTrue("A URL atual não contém: " + trecho + " (" + currentUrl + ")", currentUrl.contains(trecho));
     }
 
     @Then("^Eu vejo resultados relacionados a \"([^\"]*)\"$")
     public void euVejoResultadosRelacionadosA(String termo) {
 
-        boolean containsTerm = seleniumActions.isTextPresentInPage(termo);
+        boolean containsTerm = seleniumActions().isTextPresentInPage(termo);
         Assert.assertTrue("Resultados não contêm o termo pesquisado: " + termo, containsTerm);
 
-        seleniumActions.takeScreenshot("Resultados para: " + termo);
+        seleniumActions().takeScreenshot("Resultados para: " + termo);
+    }
+
+    @Then("^Eu vejo resultados relacionados aos termos \"([^\"]*)\"$")
+    public void euVejoResultadosRelacionadosAosTermos(String termos) {
+
+        Map<String, Boolean> presence = seleniumActions().areTextsPresentInPage(termos.split("\\s*,\\s*"));
+        for (Map.Entry<String, Boolean> entry : presence.entrySet()) {
+            Assert.assertTrue("Resultados não contêm o termo pesquisado: " + entry.getKey(), entry.getValue());
+        }
+
+        seleniumActions().takeScreenshot("Resultados para: " + termos);
     }
 
     @Then("^O título da página contém \"([^\"]*)\"$")
     public void oTituloDaPaginaContem(String texto) {
 
-        boolean titleContains = seleniumActions.isTextPresentInTitle(texto);
-        boolean pageContains = seleniumActions.isTextPresentInPage(texto);
-
+        boolean titleOrPageContains = seleniumActions().isTextPresentInTitleOrPage(texto);
 
         Assert.assertTrue("Nem o título nem o conteúdo da página contém: " + texto, 
-            titleContains || pageContains);
+            titleOrPageContains);
 
-        seleniumActions.takeScreenshot("Verificação de título/conteúdo para: " + texto);
+        seleniumActions().takeScreenshot("Verificação de título/conteúdo para: " + texto);
     }
 }
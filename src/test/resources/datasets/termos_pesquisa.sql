@@ -0,0 +1,6 @@
+-- Termos das pesquisas de demo-dataset.feature
+CREATE TABLE IF NOT EXISTS termos_pesquisa (ordem INT PRIMARY KEY, termo VARCHAR(200), resultado VARCHAR(200));
+MERGE INTO termos_pesquisa KEY (ordem) VALUES
+    (1, 'Allure Report', 'Allure'),
+    (2, 'Cucumber JVM', 'Cucumber'),
+    (3, 'banco de dados H2', 'H2');
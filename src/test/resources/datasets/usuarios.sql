@@ -0,0 +1,3 @@
+-- Usuários consultados por api-dataset.feature, gerados no próprio H2
+CREATE TABLE IF NOT EXISTS usuarios AS
+SELECT X AS id, 'Test User' AS nome FROM SYSTEM_RANGE(1, 50);
@@ -0,0 +1,13 @@
+@api
+Feature: API Data-Driven Tests
+  As a developer
+  I want data-driven API scenarios read from the database
+  So that large data sets do not live in feature files
+
+  Scenario Outline: Look up users from the database
+    When I request user <id>
+    Then the user name is "<nome>"
+
+    @dataset:usuarios
+    Examples:
+      | id | nome |
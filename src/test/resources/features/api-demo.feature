@@ -1,3 +1,4 @@
+@api
 Feature: API Demo Tests
   As a user
   I want to perform API operations
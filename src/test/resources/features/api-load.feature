@@ -0,0 +1,17 @@
+@api
+Feature: API Load Smoke Tests
+  As a developer
+  I want to send load to the API
+  So that I can catch latency regressions early
+
+  Scenario: User lookup under closed-loop load
+    When I send 2000 GET /api/users/1 requests with concurrency 16
+    Then the error rate is below 1%
+    And the p99 latency is below 1000 ms
+    And the throughput is at least 50 requests per second
+
+  Scenario: User lookup at a fixed request rate
+    When I send 300 GET /api/users/2 requests at 200 requests per second with concurrency 8
+    Then the error rate is below 1%
+    And the p95 latency is below 1000 ms
+    And the max latency is below 5000 ms
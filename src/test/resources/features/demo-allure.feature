@@ -6,6 +6,7 @@ Feature: Demo Allure com Google
     Then Eu vejo resultados relacionados a "Selenium"
     And O título da página contém "Selenium"
 
+  @lean
   Scenario: Exemplo Único Corrigido
     Given Estou em um site
     When Eu insiro "automação de testes" na página
@@ -0,0 +1,11 @@
+Feature: Pesquisas no Google lidas do banco
+
+  Scenario Outline: Pesquisa de termos do banco no Google
+    Given Estou na página do Google
+    When Eu pesquiso por "<termo>"
+    Then Eu vejo resultados relacionados a "<resultado>"
+    And O título da página contém "<termo>"
+
+    @dataset:termos_pesquisa
+    Examples:
+      | termo | resultado |
@@ -0,0 +1,16 @@
+@htmlunit
+Feature: Página local sem navegador
+
+  Scenario: Verificar conteúdo da página local
+    Given Estou na página local "index.html"
+    Then O título da página contém "Allure"
+    And Eu vejo resultados relacionados a "Cucumber"
+
+  Scenario: Verificar vários termos da página local
+    Given Estou na página local "index.html"
+    Then Eu vejo resultados relacionados aos termos "Allure, Cucumber, Selenium"
+
+  Scenario: Pesquisar na página local
+    Given Estou na página local "index.html"
+    When Eu pesquiso por "Allure Cucumber"
+    Then A URL atual contém "q=Allure"